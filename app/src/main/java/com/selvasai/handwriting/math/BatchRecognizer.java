@@ -0,0 +1,204 @@
+/*!
+ *  @date 2026/10/18
+ *  @file BatchRecognizer.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Recognizes stored inks without any UI.
+ * Records are streamed from an {@link InkSource} into one reused {@link StrokeBuffer} and recognized
+ * as background tasks on the {@link EngineExecutor}, in a separate ink, so interactive recognition
+ * keeps priority and its ink is not disturbed. The next record is read while the previous one is
+ * recognized, and results are written out in order as {@code id<TAB>candidate<TAB>candidate...} lines.
+ * A candidate of several lines keeps its line breaks as {@code \n}; backslashes, tabs and carriage
+ * returns in ids and candidates are escaped as {@code \\}, {@code \t} and {@code \r}, so every field
+ * unescapes like a Java string literal. An ink the engine failed to recognize is written as
+ * {@code id<TAB>!ERR=status}, unlike an ink recognized without candidates, which is a bare id line;
+ * failures are also counted in the {@link Report}.
+ * The engine must already be initialized. Latencies count engine time only, not time spent queued.
+ */
+public class BatchRecognizer {
+
+    public static class Report {
+        public int count;
+        public int failureCount;
+        public long elapsedNanos;
+        public long waitNanos;
+        public long p50Nanos;
+        public long p95Nanos;
+        public long p99Nanos;
+        public long maxNanos;
+
+        public double getInksPerSecond() {
+            return elapsedNanos == 0 ? 0 : count * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%d inks (%d failed) in %.1f s (%.1f inks/s), latency p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.2f ms, queued %.1f s",
+                    count, failureCount, elapsedNanos / 1e9, getInksPerSecond(),
+                    p50Nanos / 1e6, p95Nanos / 1e6, p99Nanos / 1e6, maxNanos / 1e6, waitNanos / 1e9);
+        }
+    }
+
+    private final static String FAILURE_PREFIX = "\t!ERR=";
+
+    private final RecognitionEngine mEngine;
+    private final EngineExecutor mExecutor;
+    private final StrokeBuffer mInk = new StrokeBuffer();
+    private long[] mLatencies = new long[1024];
+    private int mCount = 0;
+    private int mFailureCount = 0;
+    private long mWaitNanos = 0;
+
+    public BatchRecognizer(RecognitionEngine engine) {
+        this(engine, EngineExecutor.getDefault());
+    }
+
+    public BatchRecognizer(RecognitionEngine engine, EngineExecutor executor) {
+        mEngine = engine;
+        mExecutor = executor;
+    }
+
+    public Report run(InkSource source, Writer output) throws IOException {
+        mCount = 0;
+        mFailureCount = 0;
+        mWaitNanos = 0;
+        final long start = System.nanoTime();
+        String pendingId = null;
+        Future<RecognitionResult> pending = null;
+        String id;
+        while ((id = source.next(mInk)) != null) {
+            Future<RecognitionResult> next = submit();
+            if (pending != null) {
+                write(output, pendingId, await(pending));
+            }
+            pendingId = id;
+            pending = next;
+        }
+        if (pending != null) {
+            write(output, pendingId, await(pending));
+        }
+        output.flush();
+        return createReport(mCount, System.nanoTime() - start);
+    }
+
+    private Future<RecognitionResult> submit() throws IOException {
+        final int strokeCount = mInk.getStrokeCount();
+        final int[] points = Arrays.copyOf(mInk.getPoints(), mInk.getPointCount() * 2);
+        final int[] strokeEnds = Arrays.copyOf(mInk.getStrokeEnds(), strokeCount);
+        final long queued = System.nanoTime();
+        try {
+            return mExecutor.submitBlocking(new Callable<RecognitionResult>() {
+                @Override
+                public RecognitionResult call() {
+                    final long inkStart = System.nanoTime();
+                    RecognitionResult result = mEngine.recognize(points, strokeEnds, strokeCount);
+                    final long end = System.nanoTime();
+                    // Tasks run one at a time on the engine thread; Future.get() publishes the counts to the caller.
+                    mWaitNanos += inkStart - queued;
+                    if (mCount == mLatencies.length) {
+                        mLatencies = Arrays.copyOf(mLatencies, mCount * 2);
+                    }
+                    mLatencies[mCount++] = end - inkStart;
+                    return result;
+                }
+            }, EngineExecutor.PRIORITY_BACKGROUND);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch interrupted");
+        }
+    }
+
+    private RecognitionResult await(Future<RecognitionResult> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void write(Writer output, String id, RecognitionResult result) throws IOException {
+        writeEscaped(output, id);
+        if (!result.isSuccessful()) {
+            mFailureCount++;
+            output.write(FAILURE_PREFIX);
+            output.write(Integer.toString(result.getStatus()));
+            output.write('\n');
+            return;
+        }
+        for (int rank = 0; rank < result.getRankCount(); rank++) {
+            output.write('\t');
+            writeEscaped(output, result.getText(rank));
+        }
+        output.write('\n');
+    }
+
+    private static void writeEscaped(Writer output, String text) throws IOException {
+        final int length = text.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            final char escape;
+            switch (c) {
+                case '\\':
+                    escape = '\\';
+                    break;
+                case '\t':
+                    escape = 't';
+                    break;
+                case '\n':
+                    escape = 'n';
+                    break;
+                case '\r':
+                    escape = 'r';
+                    break;
+                default:
+                    continue;
+            }
+            output.write(text, start, i - start);
+            output.write('\\');
+            output.write(escape);
+            start = i + 1;
+        }
+        output.write(text, start, length - start);
+    }
+
+    private Report createReport(int count, long elapsedNanos) {
+        Report report = new Report();
+        report.count = count;
+        report.failureCount = mFailureCount;
+        report.elapsedNanos = elapsedNanos;
+        report.waitNanos = mWaitNanos;
+        if (count > 0) {
+            Arrays.sort(mLatencies, 0, count);
+            report.p50Nanos = percentile(count, 50);
+            report.p95Nanos = percentile(count, 95);
+            report.p99Nanos = percentile(count, 99);
+            report.maxNanos = mLatencies[count - 1];
+        }
+        return report;
+    }
+
+    private long percentile(int count, int percent) {
+        int index = (int) Math.ceil(count * percent / 100.0) - 1;
+        return mLatencies[Math.max(0, Math.min(count - 1, index))];
+    }
+}
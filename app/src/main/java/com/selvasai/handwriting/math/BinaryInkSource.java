@@ -0,0 +1,128 @@
+/*!
+ *  @date 2026/10/18
+ *  @file BinaryInkSource.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Reads an {@link InkFormat} file through a read-only memory mapping.
+ * Points are decoded straight from the mapped pages into the caller's {@link StrokeBuffer},
+ * so rebuilding an ink allocates nothing per point.
+ */
+public class BinaryInkSource implements InkSource {
+
+    private final static Charset UTF_8 = Charset.forName("UTF-8");
+    private final static int MAX_ID_BYTES = 1024;
+
+    private final RandomAccessFile mFile;
+    private final MappedByteBuffer mBuffer;
+    private final boolean mTimestamps;
+
+    public BinaryInkSource(File file) throws IOException {
+        mFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = mFile.getChannel();
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Ink file too large to map: " + file);
+            }
+            mBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mBuffer.remaining() < InkFormat.HEADER_SIZE) {
+                throw new IOException("Not an ink file: " + file);
+            }
+            for (byte b : InkFormat.MAGIC) {
+                if (mBuffer.get() != b) {
+                    throw new IOException("Not an ink file: " + file);
+                }
+            }
+            int version = mBuffer.get() & 0xff;
+            if (version != InkFormat.VERSION) {
+                throw new IOException("Unsupported ink file version " + version + ": " + file);
+            }
+            mTimestamps = (mBuffer.get() & InkFormat.FLAG_TIMESTAMPS) != 0;
+        } catch (IOException e) {
+            mFile.close();
+            throw e;
+        }
+    }
+
+    public boolean hasTimestamps() {
+        return mTimestamps;
+    }
+
+    @Override
+    public String next(StrokeBuffer ink) throws IOException {
+        if (!mBuffer.hasRemaining()) {
+            return null;
+        }
+        try {
+            final int recordStart = mBuffer.position();
+            final int idLength = readVarint();
+            if (idLength < 0 || idLength > MAX_ID_BYTES || idLength > mBuffer.remaining()) {
+                throw new IOException("Invalid ink id length " + idLength + " at offset " + recordStart);
+            }
+            byte[] idBytes = new byte[idLength];
+            mBuffer.get(idBytes);
+
+            ink.clear();
+            final int strokesStart = mBuffer.position();
+            final int strokeCount = readVarint();
+            // Every stroke takes at least the byte of its point count.
+            if (strokeCount < 0 || strokeCount > mBuffer.remaining()) {
+                throw new IOException("Invalid stroke count " + strokeCount + " at offset " + strokesStart);
+            }
+            int x = 0;
+            int y = 0;
+            int time = 0;
+            for (int stroke = 0; stroke < strokeCount; stroke++) {
+                final int countStart = mBuffer.position();
+                final int pointCount = readVarint();
+                // Every point takes at least one byte per coordinate.
+                if (pointCount < 0 || pointCount > mBuffer.remaining() / 2) {
+                    throw new IOException("Invalid point count " + pointCount + " at offset " + countStart);
+                }
+                for (int i = 0; i < pointCount; i++) {
+                    x += InkFormat.unzigzag(readVarint());
+                    y += InkFormat.unzigzag(readVarint());
+                    if (mTimestamps) {
+                        time += InkFormat.unzigzag(readVarint());
+                    }
+                    ink.addPoint(x, y, time);
+                }
+                ink.endStroke();
+            }
+            return new String(idBytes, UTF_8);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated ink record at offset " + mBuffer.position(), e);
+        }
+    }
+
+    private int readVarint() throws IOException {
+        final int start = mBuffer.position();
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = mBuffer.get();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint at offset " + start);
+    }
+
+    @Override
+    public void close() throws IOException {
+        mFile.close();
+    }
+}
@@ -0,0 +1,81 @@
+/*!
+ *  @date 2026/10/18
+ *  @file BinaryInkWriter.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Streams inks to an output in the {@link InkFormat} layout.
+ */
+public class BinaryInkWriter implements Closeable {
+
+    private final static Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final OutputStream mOutput;
+    private final boolean mTimestamps;
+
+    public BinaryInkWriter(OutputStream output, boolean timestamps) throws IOException {
+        mOutput = new BufferedOutputStream(output);
+        mTimestamps = timestamps;
+        mOutput.write(InkFormat.MAGIC);
+        mOutput.write(InkFormat.VERSION);
+        mOutput.write(timestamps ? InkFormat.FLAG_TIMESTAMPS : 0);
+    }
+
+    /**
+     * Writes the finished strokes of {@code ink} as one record.
+     */
+    public void write(String id, StrokeBuffer ink) throws IOException {
+        byte[] idBytes = id.getBytes(UTF_8);
+        writeVarint(idBytes.length);
+        mOutput.write(idBytes);
+
+        final int strokeCount = ink.getStrokeCount();
+        writeVarint(strokeCount);
+        int x = 0;
+        int y = 0;
+        int time = 0;
+        for (int stroke = 0; stroke < strokeCount; stroke++) {
+            final int start = ink.getStrokeStart(stroke);
+            final int end = ink.getStrokeEnd(stroke);
+            writeVarint(end - start);
+            for (int i = start; i < end; i++) {
+                writeVarint(InkFormat.zigzag(ink.getX(i) - x));
+                writeVarint(InkFormat.zigzag(ink.getY(i) - y));
+                x = ink.getX(i);
+                y = ink.getY(i);
+                if (mTimestamps) {
+                    writeVarint(InkFormat.zigzag(ink.getTime(i) - time));
+                    time = ink.getTime(i);
+                }
+            }
+        }
+    }
+
+    private void writeVarint(int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            mOutput.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        mOutput.write(value);
+    }
+
+    public void flush() throws IOException {
+        mOutput.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        mOutput.close();
+    }
+}
@@ -0,0 +1,317 @@
+/*!
+ *  @date 2026/10/18
+ *  @file DHWREngine.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import com.selvy.spmath.DHWR;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+public class DHWREngine implements RecognitionEngine {
+
+    private final static int MAX_CANDIDATES = 5;
+    // Retries of a recognition the engine reported busy, doubling the wait from BUSY_RETRY_MILLIS.
+    private final static int MAX_BUSY_RETRIES = 3;
+    private final static long BUSY_RETRY_MILLIS = 5;
+
+    private final String mFilesPath;
+    private DHWR.Ink mInk;
+    private DHWR.Setting mSetting;
+    private DHWR.ResultView mResultView;
+    private int mCandidateDepth = 1;
+    private boolean mStrokeIndicesEnabled = false;
+    // Result last read from mResultView; the view still holds the rest of it.
+    private RecognitionResult mViewResult = null;
+    private final HashMap<Long, DHWR.Setting> mSettings = new HashMap<Long, DHWR.Setting>();
+    private long mLastLanguageSwitchNanos = 0;
+    private long mLibraryLoadNanos = 0;
+    private long mLicenseCheckNanos = 0;
+    private long mModelLoadNanos = 0;
+    private LatencyTracker mLatencyTracker = null;
+    private int mBusyRetryCount = 0;
+
+    public DHWREngine(String filesPath) {
+        mFilesPath = filesPath;
+    }
+
+    /**
+     * Records the native, marshalling and formatting phases of every recognition into {@code tracker}.
+     */
+    public void setLatencyTracker(LatencyTracker tracker) {
+        mLatencyTracker = tracker;
+    }
+
+    @Override
+    public int initialize() {
+        // Touching DHWR first loads the native libraries, so they are not counted as license check time.
+        mLibraryLoadNanos = DHWR.GetLibraryLoadNanos();
+
+        long start = System.nanoTime();
+        int status = DHWR.Create(mFilesPath + "/" + "license.key");
+        mLicenseCheckNanos = System.nanoTime() - start;
+        if (status == DHWR.ERR_ALREADY_EXIST) {
+            // The engine is process-wide; an earlier instance created it and it is still usable.
+            DHWR.PrintLog(DHWR.LEVEL_INFO, DHWR.TAG, "Engine already created");
+            status = DHWR.ERR_SUCCESS;
+        }
+
+        start = System.nanoTime();
+        DHWR.SetExternalResourcePath(mFilesPath.toCharArray());
+        mInk = new DHWR.Ink();
+        mResultView = new DHWR.ResultView();
+        mSetting = obtainSetting(DHWR.DLANG_MATH_MIDDLE_EXPANSION, DHWR.DTYPE_MATH_EX);
+        DHWR.SetAttribute(mSetting.GetHandle());
+        mModelLoadNanos = System.nanoTime() - start;
+
+        return status;
+    }
+
+    public long getLibraryLoadNanos() {
+        return mLibraryLoadNanos;
+    }
+
+    public long getLicenseCheckNanos() {
+        return mLicenseCheckNanos;
+    }
+
+    public long getModelLoadNanos() {
+        return mModelLoadNanos;
+    }
+
+    @Override
+    public int destroy() {
+        // Release every native object deterministically before the engine goes away.
+        if (mResultView != null) {
+            mResultView.close();
+            mResultView = null;
+            mViewResult = null;
+        }
+        if (mInk != null) {
+            mInk.close();
+            mInk = null;
+        }
+        for (DHWR.Setting setting : mSettings.values()) {
+            setting.close();
+        }
+        mSettings.clear();
+        mSetting = null;
+        DHWR.ClearInkPool();
+        DHWR.ReleaseUnreachableHandles();
+        return DHWR.Close();
+    }
+
+    @Override
+    public void clearInk() {
+        mInk.Clear();
+    }
+
+    @Override
+    public void addStroke(int[] points, int offset, int count) {
+        addStroke(mInk, points, offset, count);
+    }
+
+    @Override
+    public void setInk(int[] points, int[] strokeEnds, int strokeCount) {
+        setInk(mInk, points, strokeEnds, strokeCount);
+    }
+
+    private static void addStroke(DHWR.Ink ink, int[] points, int offset, int count) {
+        for (int i = offset; i < offset + count; i++) {
+            ink.AddPoint(points[i * 2], points[i * 2 + 1]);
+        }
+        ink.EndStroke();
+    }
+
+    private static void setInk(DHWR.Ink ink, int[] points, int[] strokeEnds, int strokeCount) {
+        ink.Clear();
+        int start = 0;
+        for (int i = 0; i < strokeCount; i++) {
+            addStroke(ink, points, start, strokeEnds[i] - start);
+            start = strokeEnds[i];
+        }
+    }
+
+    @Override
+    public RecognitionResult recognize() {
+        return recognize(mInk);
+    }
+
+    /**
+     * Recognizes the given strokes in a pooled ink, leaving the current ink untouched.
+     */
+    @Override
+    public RecognitionResult recognize(int[] points, int[] strokeEnds, int strokeCount) {
+        DHWR.Ink ink = DHWR.ObtainInk();
+        try {
+            setInk(ink, points, strokeEnds, strokeCount);
+            return recognize(ink);
+        } finally {
+            ink.Recycle();
+        }
+    }
+
+    private RecognitionResult recognize(DHWR.Ink ink) {
+        int status = recognizeRetryingBusy(ink);
+        final long recognized = System.nanoTime();
+        RecognitionResult result = RecognitionResult.failure(status);
+        // A failed recognition still overwrites the view, so no earlier result can be read from it.
+        mViewResult = null;
+        if (status == DHWR.ERR_SUCCESS) {
+            result = createResult(mResultView, mCandidateDepth, mStrokeIndicesEnabled);
+            mViewResult = result;
+        }
+        if (mLatencyTracker != null) {
+            mLatencyTracker.record(LatencyTracker.PHASE_NATIVE, mResultView.GetRecognizeNanos());
+            mLatencyTracker.record(LatencyTracker.PHASE_MARSHALLING, System.nanoTime() - recognized);
+        }
+        return result;
+    }
+
+    /**
+     * Calls DHWR.Recognize, retrying with a growing delay while the engine reports ERR_ENGINE_BUSY.
+     * Every call is made from the engine thread, so this only happens if something else in the process
+     * uses DHWR directly.
+     */
+    private int recognizeRetryingBusy(DHWR.Ink ink) {
+        int status = DHWR.Recognize(ink, mResultView);
+        long delay = BUSY_RETRY_MILLIS;
+        for (int retry = 0; status == DHWR.ERR_ENGINE_BUSY && retry < MAX_BUSY_RETRIES; retry++) {
+            mBusyRetryCount++;
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            delay *= 2;
+            status = DHWR.Recognize(ink, mResultView);
+        }
+        if (status == DHWR.ERR_ENGINE_BUSY) {
+            DHWR.PrintLog(DHWR.LEVEL_ERROR, DHWR.TAG, "Engine busy, recognition dropped");
+        }
+        return status;
+    }
+
+    /**
+     * Returns how many times a recognition was retried because the engine was busy.
+     */
+    public int getBusyRetryCount() {
+        return mBusyRetryCount;
+    }
+
+    @Override
+    public void setResultDepth(int candidates, boolean strokeIndices) {
+        mCandidateDepth = Math.max(1, Math.min(candidates, MAX_CANDIDATES));
+        mStrokeIndicesEnabled = strokeIndices;
+    }
+
+    @Override
+    public RecognitionResult expand(RecognitionResult result, int candidates, boolean strokeIndices) {
+        if (result != mViewResult) {
+            // The view was reused by another recognition since; the current ink is the one result came from.
+            final int status = recognizeRetryingBusy(mInk);
+            if (status != DHWR.ERR_SUCCESS) {
+                return RecognitionResult.failure(status);
+            }
+        }
+        mViewResult = createResult(mResultView, Math.max(1, Math.min(candidates, MAX_CANDIDATES)), strokeIndices);
+        return mViewResult;
+    }
+
+    @Override
+    public void prepareLanguage(int language, int option) {
+        if (mSettings.containsKey(key(language, option))) {
+            return;
+        }
+        // Applying the new setting once loads its model; the active setting is restored afterwards.
+        DHWR.Setting setting = obtainSetting(language, option);
+        DHWR.SetAttribute(setting.GetHandle());
+        DHWR.SetAttribute(mSetting.GetHandle());
+    }
+
+    @Override
+    public void setLanguage(int language, int option) {
+        final long start = System.nanoTime();
+        DHWR.Setting setting = obtainSetting(language, option);
+        if (setting != mSetting) {
+            mSetting = setting;
+            DHWR.SetAttribute(mSetting.GetHandle());
+        }
+        mLastLanguageSwitchNanos = System.nanoTime() - start;
+        if (DHWR.IsLogEnabled(DHWR.LEVEL_INFO)) {
+            DHWR.PrintLog(DHWR.LEVEL_INFO, DHWR.TAG, "Language switch : " + mLastLanguageSwitchNanos / 1000 + "us");
+        }
+    }
+
+    public long getLastLanguageSwitchNanos() {
+        return mLastLanguageSwitchNanos;
+    }
+
+    private DHWR.Setting obtainSetting(int language, int option) {
+        DHWR.Setting setting = mSettings.get(key(language, option));
+        if (setting == null) {
+            setting = new DHWR.Setting();
+            DHWR.SetRecognitionMode(setting.GetHandle(), DHWR.MULTICHAR);
+            DHWR.SetCandidateSize(setting.GetHandle(), MAX_CANDIDATES);
+            DHWR.ClearLanguage(setting.GetHandle());
+            DHWR.AddLanguage(setting.GetHandle(), language, option);
+            mSettings.put(key(language, option), setting);
+        }
+        return setting;
+    }
+
+    private static long key(int language, int option) {
+        return ((long) language << 32) | (option & 0xffffffffL);
+    }
+
+    /**
+     * Reads up to {@code depth} candidates of every block out of the native result, and the stroke
+     * indices only if asked. Blocks without candidates and lines without blocks are skipped.
+     */
+    static RecognitionResult createResult(DHWR.ResultView view, int depth, boolean strokeIndices) {
+        final int lineSize = view.GetLineSize();
+        ArrayList<RecognitionResult.Block[]> lines = new ArrayList<RecognitionResult.Block[]>(lineSize);
+        ArrayList<RecognitionResult.Block> blocks = new ArrayList<RecognitionResult.Block>();
+        for (int i = 0; i < lineSize; i++) {
+            blocks.clear();
+            final int blockSize = view.GetBlockSize(i);
+            for (int j = 0; j < blockSize; j++) {
+                final int candidateCount = Math.min(view.GetCandidateSize(i, j), depth);
+                if (candidateCount == 0) {
+                    continue;
+                }
+                String[] candidates = new String[candidateCount];
+                for (int k = 0; k < candidateCount; k++) {
+                    candidates[k] = view.GetCandidate(i, j, k);
+                }
+                int[] indices = RecognitionResult.NO_STROKES;
+                if (strokeIndices) {
+                    indices = new int[view.GetStrokeSize(i, j)];
+                    view.GetStrokeIndices(i, j, indices);
+                }
+                blocks.add(new RecognitionResult.Block(candidates, indices));
+            }
+            if (!blocks.isEmpty()) {
+                lines.add(blocks.toArray(new RecognitionResult.Block[blocks.size()]));
+            }
+        }
+        if (lines.isEmpty()) {
+            return RecognitionResult.EMPTY;
+        }
+        return new RecognitionResult(lines.toArray(new RecognitionResult.Block[lines.size()][]));
+    }
+
+    @Override
+    public String getVersion() {
+        final int MAX_VERSION_LENGTH = 64;
+        char[] version = new char[MAX_VERSION_LENGTH];
+        DHWR.GetRevision(version);
+        return String.valueOf(version).trim();
+    }
+}
@@ -0,0 +1,308 @@
+/*!
+ *  @date 2026/10/18
+ *  @file EngineExecutor.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs every call into the native engine on one thread, one task at a time.
+ * DHWR is a single process-wide engine, so all recognizers share {@link #getDefault()}.
+ * Interactive tasks run in submission order ahead of every queued background task; a running task
+ * is never interrupted. Background tasks are bounded: {@link #submit} rejects them when the queue is
+ * full and {@link #submitBlocking} waits for room. For each priority the time a task waited in the
+ * queue is counted separately from the time it ran.
+ * A task passed to {@link #execute} that throws is reported to the engine thread's uncaught exception
+ * handler, as a plain executor would, since nothing else could see it. The failure of a submitted task
+ * is left in its future for the caller; a caller that drops the future drops the failure.
+ */
+public class EngineExecutor implements Executor {
+
+    /** Ink updates and requests the user is waiting for. Never rejected. */
+    public final static int PRIORITY_INTERACTIVE = 0;
+    /** Speculative recognition, preparation and batch jobs. */
+    public final static int PRIORITY_BACKGROUND = 1;
+    public final static int PRIORITY_COUNT = 2;
+
+    private final static String THREAD_NAME = "RecognitionEngine";
+    private final static int DEFAULT_BACKGROUND_CAPACITY = 16;
+    private final static String[] PRIORITY_NAMES = { "interactive", "background" };
+
+    private static EngineExecutor sDefault = null;
+
+    private final int mBackgroundCapacity;
+    private final ReentrantLock mLock = new ReentrantLock();
+    private final Condition mNotEmpty = mLock.newCondition();
+    private final Condition mNotFull = mLock.newCondition();
+    private final List<ArrayDeque<Task<?>>> mQueues = new ArrayList<ArrayDeque<Task<?>>>(PRIORITY_COUNT);
+    private Thread mThread = null;
+
+    private final AtomicLongArray mTaskCounts = new AtomicLongArray(PRIORITY_COUNT);
+    private final AtomicLongArray mWaitNanos = new AtomicLongArray(PRIORITY_COUNT);
+    private final AtomicLongArray mMaxWaitNanos = new AtomicLongArray(PRIORITY_COUNT);
+    private final AtomicLongArray mRunNanos = new AtomicLongArray(PRIORITY_COUNT);
+    private final AtomicLong mRejectedCount = new AtomicLong();
+
+    public EngineExecutor() {
+        this(DEFAULT_BACKGROUND_CAPACITY);
+    }
+
+    /**
+     * @param backgroundCapacity number of background tasks that may wait in the queue
+     */
+    public EngineExecutor(int backgroundCapacity) {
+        mBackgroundCapacity = backgroundCapacity;
+        for (int i = 0; i < PRIORITY_COUNT; i++) {
+            mQueues.add(new ArrayDeque<Task<?>>());
+        }
+    }
+
+    /**
+     * Returns the executor shared by everything that uses the DHWR engine in this process.
+     */
+    public static synchronized EngineExecutor getDefault() {
+        if (sDefault == null) {
+            sDefault = new EngineExecutor();
+        }
+        return sDefault;
+    }
+
+    public static String getPriorityName(int priority) {
+        return PRIORITY_NAMES[priority];
+    }
+
+    /**
+     * Runs {@code task} with interactive priority.
+     */
+    @Override
+    public void execute(Runnable task) {
+        enqueue(new Task<Object>(task, PRIORITY_INTERACTIVE, true));
+    }
+
+    /**
+     * Queues {@code task} without blocking.
+     * @throws RejectedExecutionException if it is a background task and the background queue is full
+     */
+    public <T> Future<T> submit(Callable<T> task, int priority) {
+        Task<T> future = new Task<T>(task, priority);
+        enqueue(future);
+        return future;
+    }
+
+    public Future<?> submit(Runnable task, int priority) {
+        Task<Object> future = new Task<Object>(task, priority, false);
+        enqueue(future);
+        return future;
+    }
+
+    /**
+     * Queues {@code task}, waiting while the background queue is full. Use from worker threads only.
+     */
+    public <T> Future<T> submitBlocking(Callable<T> task, int priority) throws InterruptedException {
+        Task<T> future = new Task<T>(task, priority);
+        mLock.lockInterruptibly();
+        try {
+            while (isFull(priority)) {
+                mNotFull.await();
+            }
+            add(future);
+        } finally {
+            mLock.unlock();
+        }
+        return future;
+    }
+
+    private void enqueue(Task<?> task) {
+        mLock.lock();
+        try {
+            if (isFull(task.mPriority)) {
+                mRejectedCount.incrementAndGet();
+                throw new RejectedExecutionException("Engine queue full");
+            }
+            add(task);
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    private boolean isFull(int priority) {
+        if (priority == PRIORITY_INTERACTIVE) {
+            return false;
+        }
+        ArrayDeque<Task<?>> queue = mQueues.get(priority);
+        if (queue.size() >= mBackgroundCapacity) {
+            // Cancelled tasks would be skipped anyway; do not let them hold places.
+            Iterator<Task<?>> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isCancelled()) {
+                    iterator.remove();
+                }
+            }
+        }
+        return queue.size() >= mBackgroundCapacity;
+    }
+
+    private void add(Task<?> task) {
+        task.mQueuedNanos = System.nanoTime();
+        mQueues.get(task.mPriority).addLast(task);
+        if (mThread == null) {
+            mThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    runTasks();
+                }
+            }, THREAD_NAME);
+            mThread.setDaemon(true);
+            mThread.start();
+        }
+        mNotEmpty.signal();
+    }
+
+    private void runTasks() {
+        while (true) {
+            Task<?> task;
+            mLock.lock();
+            try {
+                while ((task = poll()) == null) {
+                    mNotEmpty.awaitUninterruptibly();
+                }
+                if (task.mPriority != PRIORITY_INTERACTIVE) {
+                    mNotFull.signalAll();
+                }
+            } finally {
+                mLock.unlock();
+            }
+            if (task.isCancelled()) {
+                continue;
+            }
+            final int priority = task.mPriority;
+            final long start = System.nanoTime();
+            final long wait = start - task.mQueuedNanos;
+            task.run();
+            mRunNanos.addAndGet(priority, System.nanoTime() - start);
+            mWaitNanos.addAndGet(priority, wait);
+            mTaskCounts.incrementAndGet(priority);
+            long max;
+            while (wait > (max = mMaxWaitNanos.get(priority)) && !mMaxWaitNanos.compareAndSet(priority, max, wait)) {
+                // retry
+            }
+        }
+    }
+
+    private Task<?> poll() {
+        for (ArrayDeque<Task<?>> queue : mQueues) {
+            Task<?> task = queue.pollFirst();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of tasks of {@code priority} waiting to run.
+     */
+    public int getQueueLength(int priority) {
+        mLock.lock();
+        try {
+            return mQueues.get(priority).size();
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    public long getTaskCount(int priority) {
+        return mTaskCounts.get(priority);
+    }
+
+    /**
+     * Returns the total time tasks of {@code priority} spent queued before they started.
+     */
+    public long getWaitNanos(int priority) {
+        return mWaitNanos.get(priority);
+    }
+
+    public long getMaxWaitNanos(int priority) {
+        return mMaxWaitNanos.get(priority);
+    }
+
+    /**
+     * Returns the total time tasks of {@code priority} spent running on the engine thread.
+     */
+    public long getRunNanos(int priority) {
+        return mRunNanos.get(priority);
+    }
+
+    public long getRejectedCount() {
+        return mRejectedCount.get();
+    }
+
+    public void dump(PrintWriter writer) {
+        writer.println(String.format(Locale.US, "%-12s %8s %7s %10s %10s %10s",
+                "priority", "tasks", "queued", "wait", "max wait", "run"));
+        for (int i = 0; i < PRIORITY_COUNT; i++) {
+            final long count = Math.max(1, getTaskCount(i));
+            writer.println(String.format(Locale.US, "%-12s %8d %7d %10.2f %10.2f %10.2f",
+                    PRIORITY_NAMES[i], getTaskCount(i), getQueueLength(i), getWaitNanos(i) / 1e6 / count,
+                    getMaxWaitNanos(i) / 1e6, getRunNanos(i) / 1e6 / count));
+        }
+        writer.println("(mean times in ms, " + getRejectedCount() + " background tasks rejected)");
+    }
+
+    private static class Task<T> extends FutureTask<T> {
+        final int mPriority;
+        // Tasks without a future to hold their failure, which would otherwise go unseen.
+        final boolean mReportFailure;
+        long mQueuedNanos;
+
+        Task(Callable<T> callable, int priority) {
+            super(callable);
+            mPriority = priority;
+            mReportFailure = false;
+        }
+
+        Task(Runnable runnable, int priority, boolean reportFailure) {
+            super(runnable, null);
+            mPriority = priority;
+            mReportFailure = reportFailure;
+        }
+
+        @Override
+        protected void done() {
+            if (!mReportFailure || isCancelled()) {
+                return;
+            }
+            try {
+                get();
+            } catch (ExecutionException e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (CancellationException e) {
+                // cancelled while completing
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*!
+ *  @date 2026/10/18
+ *  @file InkFormat.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+/**
+ * Layout of the compact binary ink format written by {@link BinaryInkWriter}
+ * and read by {@link BinaryInkSource}.
+ * <pre>
+ * file   := magic "SPNK" | version u8 | flags u8 | record*
+ * record := idLength varint | id UTF-8 | strokeCount varint | stroke*
+ * stroke := pointCount varint | point*
+ * point  := dx zigzag-varint | dy zigzag-varint | [dt zigzag-varint if FLAG_TIMESTAMPS]
+ * </pre>
+ * Deltas are taken from the previous point of the record (across stroke boundaries);
+ * the first point of a record is relative to (0, 0) and time 0.
+ */
+public final class InkFormat {
+
+    public final static byte[] MAGIC = {'S', 'P', 'N', 'K'};
+    public final static int VERSION = 1;
+    public final static int FLAG_TIMESTAMPS = 0x01;
+    public final static int HEADER_SIZE = MAGIC.length + 2;
+
+    private InkFormat() {
+    }
+
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
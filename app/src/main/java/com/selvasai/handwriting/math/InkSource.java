@@ -0,0 +1,24 @@
+/*!
+ *  @date 2026/10/18
+ *  @file InkSource.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Sequential reader of stored ink records.
+ */
+public interface InkSource extends Closeable {
+
+    /**
+     * Reads the next record into {@code ink}, replacing its contents.
+     * @return the record id, or null when there are no more records
+     */
+    String next(StrokeBuffer ink) throws IOException;
+}
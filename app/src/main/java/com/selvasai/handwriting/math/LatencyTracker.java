@@ -0,0 +1,176 @@
+/*!
+ *  @date 2026/10/18
+ *  @file LatencyTracker.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects the time spent in each phase of a recognition, from the request to the typeset formula.
+ * Every phase has a fixed-size log-linear histogram (about 12% resolution), so recording is a few
+ * atomic increments and never allocates. Phases may be recorded from any thread.
+ */
+public class LatencyTracker {
+
+    /** Request made until the engine thread starts on it. */
+    public final static int PHASE_QUEUE = 0;
+    /** Native recognition (RecognizeWithContext). */
+    public final static int PHASE_NATIVE = 1;
+    /** Reading candidates out of the native result into a RecognitionResult. */
+    public final static int PHASE_MARSHALLING = 2;
+    /** Building the strings shown for a result. */
+    public final static int PHASE_FORMATTING = 3;
+    /** Result ready on the engine thread until the listener runs. */
+    public final static int PHASE_DELIVERY = 4;
+    /** Handing the formula to the WebView. */
+    public final static int PHASE_RENDER = 5;
+    /** MathJax typesetting, until the page reports back. */
+    public final static int PHASE_TYPESET = 6;
+    /** Request made until the formula is typeset. */
+    public final static int PHASE_TOTAL = 7;
+    public final static int PHASE_COUNT = 8;
+
+    private final static String[] PHASE_NAMES = {
+            "queue", "native", "marshalling", "formatting", "delivery", "render", "typeset", "total"
+    };
+
+    private final Histogram[] mHistograms = new Histogram[PHASE_COUNT];
+    private volatile boolean mEnabled = true;
+
+    public LatencyTracker() {
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            mHistograms[i] = new Histogram();
+        }
+    }
+
+    public static String getPhaseName(int phase) {
+        return PHASE_NAMES[phase];
+    }
+
+    public void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    public void record(int phase, long nanos) {
+        if (mEnabled && nanos >= 0) {
+            mHistograms[phase].record(nanos);
+        }
+    }
+
+    public long getCount(int phase) {
+        return mHistograms[phase].mCount.get();
+    }
+
+    public long getMaxNanos(int phase) {
+        return mHistograms[phase].mMax.get();
+    }
+
+    public long getMeanNanos(int phase) {
+        Histogram histogram = mHistograms[phase];
+        long count = histogram.mCount.get();
+        return count == 0 ? 0 : histogram.mSum.get() / count;
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile, or 0 if nothing was recorded.
+     */
+    public long getPercentileNanos(int phase, double percentile) {
+        return mHistograms[phase].percentile(percentile);
+    }
+
+    public void reset() {
+        for (Histogram histogram : mHistograms) {
+            histogram.reset();
+        }
+    }
+
+    public void dump(PrintWriter writer) {
+        writer.println(String.format(Locale.US, "%-12s %8s %9s %9s %9s %9s %9s",
+                "phase", "count", "mean", "p50", "p95", "p99", "max"));
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            writer.println(String.format(Locale.US, "%-12s %8d %9.2f %9.2f %9.2f %9.2f %9.2f",
+                    PHASE_NAMES[i], getCount(i), getMeanNanos(i) / 1e6,
+                    getPercentileNanos(i, 50) / 1e6, getPercentileNanos(i, 95) / 1e6,
+                    getPercentileNanos(i, 99) / 1e6, getMaxNanos(i) / 1e6));
+        }
+        writer.println("(times in ms)");
+    }
+
+    private static class Histogram {
+        // Values are bucketed in microseconds: exactly below 16 us, then 8 buckets per power of two.
+        private final static int LINEAR_BUCKETS = 16;
+        private final static int SUB_BUCKETS = 8;
+        private final static int MAX_EXPONENT = 40;
+        private final static int BUCKET_COUNT = LINEAR_BUCKETS + (MAX_EXPONENT - 3) * SUB_BUCKETS;
+
+        private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong mCount = new AtomicLong();
+        private final AtomicLong mSum = new AtomicLong();
+        private final AtomicLong mMax = new AtomicLong();
+
+        void record(long nanos) {
+            mBuckets.incrementAndGet(bucketOf(nanos / 1000));
+            mCount.incrementAndGet();
+            mSum.addAndGet(nanos);
+            long max;
+            while (nanos > (max = mMax.get()) && !mMax.compareAndSet(max, nanos)) {
+                // retry
+            }
+        }
+
+        long percentile(double percentile) {
+            final long count = mCount.get();
+            if (count == 0) {
+                return 0;
+            }
+            final long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += mBuckets.get(i);
+                if (seen >= target) {
+                    return Math.min(upperBoundOf(i) * 1000, mMax.get());
+                }
+            }
+            return mMax.get();
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                mBuckets.set(i, 0);
+            }
+            mCount.set(0);
+            mSum.set(0);
+            mMax.set(0);
+        }
+
+        private static int bucketOf(long micros) {
+            if (micros < LINEAR_BUCKETS) {
+                return (int) micros;
+            }
+            final int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+            final int sub = (int) (micros >> (exponent - 3)) & (SUB_BUCKETS - 1);
+            return Math.min(LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + sub, BUCKET_COUNT - 1);
+        }
+
+        private static long upperBoundOf(int bucket) {
+            if (bucket < LINEAR_BUCKETS) {
+                return bucket + 1;
+            }
+            final int exponent = 4 + (bucket - LINEAR_BUCKETS) / SUB_BUCKETS;
+            final int sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+            return (long) (SUB_BUCKETS + sub + 1) << (exponent - 3);
+        }
+    }
+}
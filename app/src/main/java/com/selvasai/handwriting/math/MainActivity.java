@@ -9,7 +9,6 @@
 package com.selvasai.handwriting.math;
 
 import android.app.Activity;
-import android.os.Build;
 import android.os.Bundle;
 import android.view.View;
 import android.webkit.WebView;
@@ -19,28 +18,31 @@ import android.widget.TextView;
 
 import com.selvy.spmath.DHWR;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 
 public class MainActivity extends Activity {
 
+    private ResourceInstaller mResourceInstaller;
     private WritingRecognizer mWritingRecognizer;
     private WritingView mWritingView;
     private WebView mWebView;
+    private MathRenderer mMathRenderer;
     private TextView mVersion;
     private TextView mCandidates;
-    private final String MATHJAX_HUB_QUEUE_URL = "javascript:MathJax.Hub.Queue(['Typeset',MathJax.Hub]);";
-    private final String MATHJAX_MATH_URL_PREFIX = "javascript:document.getElementById('math').innerHTML=";
+    private final String NO_RESULT = "No result";
+    private final static int CANDIDATE_COUNT = 5;
+    private long mRequestNanos = 0;
+    // Last result and the ink revision it was recognized from, used to erase a whole recognized symbol.
+    private RecognitionResult mLastResult = null;
+    private int mLastResultRevision = 0;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        copyResourceToStorage();
+        mResourceInstaller = new ResourceInstaller(this, "hdb");
         initialize();
     }
 
@@ -51,7 +53,8 @@ public class MainActivity extends Activity {
     }
 
     private void initialize() {
-        mWritingRecognizer = new WritingRecognizer(getApplicationContext());
+        mWritingRecognizer = new WritingRecognizer(getApplicationContext(), mResourceInstaller.install());
+        mWritingRecognizer.prepareLanguage(DHWR.DLANG_MATH_CHEMICAL, DHWR.DTYPE_MATH_CF);
         mWritingView = (WritingView) findViewById(R.id.canvas);
         mWritingView.setRecognizer(mWritingRecognizer);
         Button clearButton = (Button) findViewById(R.id.clear);
@@ -74,6 +77,23 @@ public class MainActivity extends Activity {
             });
         }
 
+        Button undoButton = (Button) findViewById(R.id.undo);
+        if (undoButton != null) {
+            undoButton.setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View view) {
+                    handleUndo();
+                }
+            });
+            undoButton.setOnLongClickListener(new View.OnLongClickListener() {
+                @Override
+                public boolean onLongClick(View view) {
+                    handleEraseSymbol();
+                    return true;
+                }
+            });
+        }
+
         RadioGroup languageGroup = (RadioGroup) findViewById(R.id.languageGroup);
         if (languageGroup != null) {
             languageGroup.setOnCheckedChangeListener(new RadioGroup.OnCheckedChangeListener() {
@@ -85,81 +105,169 @@ public class MainActivity extends Activity {
         }
 
         mVersion = (TextView) findViewById(R.id.version);
-        mVersion.setText(mWritingRecognizer.getVersion());
+        mWritingRecognizer.addOnInitializedListener(new WritingRecognizer.OnInitializedListener() {
+            @Override
+            public void onInitialized(int status) {
+                mVersion.setText(mWritingRecognizer.getVersion());
+            }
+        });
         mCandidates = (TextView) findViewById(R.id.candidates);
         mWebView = (WebView) findViewById(R.id.webview);
-        mWebView.getSettings().setJavaScriptEnabled(true);
         mWebView.getSettings().setBuiltInZoomControls(true);
-        mWebView.loadDataWithBaseURL("http://bar/", "<script type='text/x-mathjax-config'>"
-                + "MathJax.Hub.Config({ "
-                + "showMathMenu: false, "
-                + "jax: ['input/TeX','output/HTML-CSS'], "
-                + "extensions: ['tex2jax.js','toMathML.js'], "
-                + "TeX: { extensions: ['AMSmath.js','AMSsymbols.js',"
-                + "'noErrors.js','noUndefined.js'] }, });</script>"
-                + "<script type='text/javascript' src='file:///android_asset/MathJax/MathJax.js'></script>"
-                + "<span id='math'></span>","text/html","utf-8","");
+        mMathRenderer = new MathRenderer(mWebView, mWritingRecognizer.getLatencyTracker());
     }
 
-    private void copyResourceToStorage() {
-        String path = "hdb";
-        String[] fileList = null;
-        try {
-            fileList = getAssets().list(path);
-        } catch (IOException e) {
-            e.printStackTrace();
+    private void handleClear() {
+        mWritingRecognizer.cancelRecognition();
+        mCandidates.setVisibility(View.GONE);
+        mCandidates.setText("");
+        mWritingView.clear();
+        mWritingRecognizer.clearInk();
+        mLastResult = null;
+
+        mWebView.setVisibility(View.GONE);
+        mMathRenderer.clear();
+    }
+
+    private void handleUndo() {
+        if (mWritingRecognizer.undoStroke()) {
+            mLastResult = null;
+            mWritingView.setStrokes(mWritingRecognizer.getStrokes());
         }
+    }
 
-        if (fileList == null) {
+    /**
+     * Erases the recognized symbol that holds the last stroke, or just the last stroke when the ink
+     * was not recognized since it last changed.
+     */
+    private void handleEraseSymbol() {
+        if (!isLastResultCurrent()) {
+            handleUndo();
             return;
         }
-
-        for (String file : fileList) {
-            try {
-                String filePath = (path + "/" + file);
-                try {
-                    FileInputStream fis = openFileInput(file);
-                    fis.close();
-                } catch (FileNotFoundException e) {
-                    InputStream is = getAssets().open(filePath);
-                    final int bufferSize = is.available();
-                    byte[] buffer = new byte[bufferSize];
-                    int readSize = is.read(buffer);
-                    is.close();
-                    if (readSize > 0) {
-                        FileOutputStream fos = openFileOutput(file, Activity.MODE_PRIVATE);
-                        fos.write(buffer);
-                        fos.close();
-                    }
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
+        if (mLastResult.hasStrokeIndices()) {
+            eraseLastSymbol();
+            return;
+        }
+        // Stroke indices are only read from the engine when a symbol is erased.
+        expandLastResult(Math.max(1, mLastResult.getRankCount()), true, new Runnable() {
+            @Override
+            public void run() {
+                eraseLastSymbol();
             }
+        });
+    }
+
+    private void eraseLastSymbol() {
+        if (mWritingRecognizer.eraseLastSymbol(mLastResult) == 0) {
+            handleUndo();
+            return;
         }
+        mLastResult = null;
+        mWritingView.setStrokes(mWritingRecognizer.getStrokes());
     }
 
-    private void handleClear() {
-        mCandidates.setVisibility(View.GONE);
-        mCandidates.setText("");
-        mWritingView.clear();
-        mWritingRecognizer.clearInk();
+    /**
+     * Adds the lower ranked candidates to the list once the top one is shown. Recognition reads only
+     * the top candidate, so the formula renders without waiting for the rest.
+     */
+    private void showMoreCandidates() {
+        if (!isLastResultCurrent() || mLastResult.isEmpty() || mLastResult.getRankCount() >= CANDIDATE_COUNT) {
+            return;
+        }
+        expandLastResult(CANDIDATE_COUNT, mLastResult.hasStrokeIndices(), new Runnable() {
+            @Override
+            public void run() {
+                mCandidates.setText(mLastResult.isEmpty() ? NO_RESULT : mLastResult.toDisplayString());
+            }
+        });
+    }
 
-        mWebView.setVisibility(View.GONE);
-        loadUrl(MATHJAX_MATH_URL_PREFIX + "''");
-        loadUrl(MATHJAX_HUB_QUEUE_URL);
+    private boolean isLastResultCurrent() {
+        return mLastResult != null && mLastResultRevision == mWritingRecognizer.getInkRevision();
+    }
+
+    /**
+     * Replaces {@link #mLastResult} with a deeper read of it and runs {@code then}, unless the ink
+     * changed in the meantime.
+     */
+    private void expandLastResult(int candidates, boolean strokeIndices, final Runnable then) {
+        final int inkRevision = mLastResultRevision;
+        mWritingRecognizer.expandResultAsync(mLastResult, candidates, strokeIndices, new WritingRecognizer.OnRecognizedListener() {
+            @Override
+            public void onRecognized(RecognitionResult result) {
+                if (result.isSuccessful() && inkRevision == mWritingRecognizer.getInkRevision()) {
+                    mLastResult = result;
+                    then.run();
+                }
+            }
+
+            @Override
+            public void onRecognitionFailed(Throwable error) {
+                DHWR.PrintLog(DHWR.LEVEL_ERROR, DHWR.TAG, "Reading more of the result failed : " + error);
+            }
+        });
     }
 
     private void handleRecognize() {
-        mWritingView.clear();
-        mCandidates.setText(mWritingRecognizer.recognize());
+        // The ink is kept, so it can be corrected with undo and erase and recognized again.
+        mRequestNanos = System.nanoTime();
+        final int inkRevision = mWritingRecognizer.getInkRevision();
+        mWritingRecognizer.recognizeAsync(new WritingRecognizer.OnRecognizedListener() {
+            @Override
+            public void onRecognized(RecognitionResult result) {
+                mLastResult = result;
+                mLastResultRevision = inkRevision;
+                showCandidates(result);
+                showMoreCandidates();
+            }
+
+            @Override
+            public void onRecognitionFailed(Throwable error) {
+                DHWR.PrintLog(DHWR.LEVEL_ERROR, DHWR.TAG, "Recognition failed : " + error);
+                showCandidates(RecognitionResult.EMPTY);
+            }
+        });
+    }
+
+    private void showCandidates(RecognitionResult result) {
+        final long formatStart = System.nanoTime();
+        final String displayString = result.isEmpty() ? NO_RESULT : result.toDisplayString();
+        final String top = result.isEmpty() ? NO_RESULT : result.getTopCandidate();
+        mWritingRecognizer.getLatencyTracker().record(LatencyTracker.PHASE_FORMATTING, System.nanoTime() - formatStart);
+        mCandidates.setText(displayString);
         mCandidates.setVisibility(View.VISIBLE);
-        mWritingRecognizer.clearInk();
 
         mWebView.setVisibility(View.VISIBLE);
-        String[] candidates = mCandidates.getText().toString().split("\n");
-        loadUrl(MATHJAX_MATH_URL_PREFIX + "'\\\\[" + doubleEscapeTeX(candidates[0]) + "\\\\]';");
-        loadUrl(MATHJAX_HUB_QUEUE_URL);
-     }
+        mMathRenderer.render(top, mRequestNanos);
+    }
+
+    /**
+     * Prints the startup and recognition latencies: {@code adb shell dumpsys activity com.selvasai.handwriting.math}.
+     */
+    @Override
+    public void dump(String prefix, FileDescriptor fd, PrintWriter writer, String[] args) {
+        super.dump(prefix, fd, writer, args);
+        if (mWritingRecognizer != null) {
+            writer.println(prefix + "Recognition latency:");
+            mWritingRecognizer.getLatencyTracker().dump(writer);
+            writer.println(prefix + "Engine queue:");
+            mWritingRecognizer.getEngineExecutor().dump(writer);
+            writer.println(prefix + "Engine startup: " + (mWritingRecognizer.isInitialized()
+                    ? mWritingRecognizer.getStartupTimings() : "in progress"));
+            writer.println(prefix + "MathJax: typeset " + mMathRenderer.getTypesetCount()
+                    + ", cached " + mMathRenderer.getCacheHitCount() + ", unchanged " + mMathRenderer.getSkipCount());
+            writer.println(prefix + "Native handles: ink " + DHWR.GetLiveHandleCount(DHWR.HANDLE_INK)
+                    + ", setting " + DHWR.GetLiveHandleCount(DHWR.HANDLE_SETTING)
+                    + ", result " + DHWR.GetLiveHandleCount(DHWR.HANDLE_RESULT)
+                    + " (reclaimed unclosed: ink " + DHWR.GetLeakedHandleCount(DHWR.HANDLE_INK)
+                    + ", setting " + DHWR.GetLeakedHandleCount(DHWR.HANDLE_SETTING)
+                    + ", result " + DHWR.GetLeakedHandleCount(DHWR.HANDLE_RESULT) + ")");
+            writer.println(prefix + "Stroke surface: " + mWritingView.getSurfaceBytes() + " bytes ("
+                    + (mWritingView.getRenderMode() == WritingView.RENDER_MODE_VECTOR ? "vector" : "bitmap")
+                    + "), bitmap mode " + mWritingView.getBitmapSurfaceBytes() + " bytes");
+        }
+    }
 
     private void handleLanguageChanged(int id) {
         int language = DHWR.DLANG_MATH_MIDDLE_EXPANSION;
@@ -176,28 +284,4 @@ public class MainActivity extends Activity {
         }
         mWritingRecognizer.setLanguage(language, option);
     }
-
-     private void loadUrl(String url) {
-         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-             mWebView.evaluateJavascript(url, null);
-         } else {
-             mWebView.loadUrl(url);
-         }
-     }
-
-    private String doubleEscapeTeX(String s) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < s.length(); i++) {
-            if (s.charAt(i) == '\'') {
-                sb.append("\\");
-            }
-            if (s.charAt(i) != '\n') {
-                sb.append(s.charAt(i));
-            }
-            if (s.charAt(i) == '\\') {
-                sb.append("\\");
-            }
-        }
-        return sb.toString();
-    }
 }
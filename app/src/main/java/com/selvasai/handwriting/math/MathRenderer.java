@@ -0,0 +1,144 @@
+/*!
+ *  @date 2026/10/18
+ *  @file MathRenderer.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import android.os.Build;
+import android.webkit.JavascriptInterface;
+import android.webkit.WebView;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Typesets TeX with MathJax in a WebView.
+ * Every update is one JavaScript call into the page. A TeX string equal to the one on screen is not
+ * sent at all, and the page keeps the typeset markup of recently shown expressions, so showing one of
+ * them again skips MathJax. The page reports back when a formula is on screen, which feeds the
+ * typeset and total phases of the {@link LatencyTracker}. Use from the main thread.
+ */
+public class MathRenderer {
+
+    private final static int MAX_CACHED_EXPRESSIONS = 32;
+    private final static String INTERFACE_NAME = "MathRenderer";
+    private final static String RENDER_URL_FORMAT = "javascript:renderMath(%d,'%s');";
+
+    private final static String PAGE = "<script type='text/x-mathjax-config'>"
+            + "MathJax.Hub.Config({ "
+            + "showMathMenu: false, "
+            + "jax: ['input/TeX','output/HTML-CSS'], "
+            + "extensions: ['tex2jax.js','toMathML.js'], "
+            + "TeX: { extensions: ['AMSmath.js','AMSsymbols.js',"
+            + "'noErrors.js','noUndefined.js'] }, });</script>"
+            + "<script type='text/javascript' src='file:///android_asset/MathJax/MathJax.js'></script>"
+            + "<script type='text/javascript'>"
+            + "var mathCache = {}, mathOrder = [], mathToken = 0;"
+            + "function renderMath(token, tex) {"
+            + "  var math = document.getElementById('math');"
+            + "  mathToken = token;"
+            + "  if (tex === '') { math.innerHTML = ''; return; }"
+            + "  if (mathCache.hasOwnProperty(tex)) {"
+            + "    math.innerHTML = mathCache[tex];"
+            + "    " + INTERFACE_NAME + ".onRendered(token, true);"
+            + "    return;"
+            + "  }"
+            + "  math.innerHTML = '\\\\[' + tex + '\\\\]';"
+            + "  MathJax.Hub.Queue(['Typeset', MathJax.Hub, math], function() {"
+            + "    if (token !== mathToken) { return; }"
+            + "    mathCache[tex] = math.innerHTML;"
+            + "    mathOrder.push(tex);"
+            + "    if (mathOrder.length > " + MAX_CACHED_EXPRESSIONS + ") { delete mathCache[mathOrder.shift()]; }"
+            + "    " + INTERFACE_NAME + ".onRendered(token, false);"
+            + "  });"
+            + "}"
+            + "</script>"
+            + "<span id='math'></span>";
+
+    private final WebView mWebView;
+    private final LatencyTracker mLatencyTracker;
+    private String mCurrentTeX = "";
+    private volatile int mToken = 0;
+    private volatile long mRequestNanos = 0;
+    private volatile long mRenderNanos = 0;
+    private final AtomicInteger mTypesetCount = new AtomicInteger();
+    private final AtomicInteger mCacheHitCount = new AtomicInteger();
+    private int mSkipCount = 0;
+
+    public MathRenderer(WebView webView, LatencyTracker latencyTracker) {
+        mWebView = webView;
+        mLatencyTracker = latencyTracker;
+        mWebView.getSettings().setJavaScriptEnabled(true);
+        mWebView.addJavascriptInterface(new Callback(), INTERFACE_NAME);
+        mWebView.loadDataWithBaseURL("http://bar/", PAGE, "text/html", "utf-8", "");
+    }
+
+    /**
+     * Shows {@code tex} as display math.
+     * @param requestNanos {@link System#nanoTime()} when the recognition was requested, for the total phase
+     */
+    public void render(String tex, long requestNanos) {
+        if (tex.equals(mCurrentTeX)) {
+            mSkipCount++;
+            mLatencyTracker.record(LatencyTracker.PHASE_TOTAL, System.nanoTime() - requestNanos);
+            return;
+        }
+        mCurrentTeX = tex;
+        mRequestNanos = requestNanos;
+        final long start = System.nanoTime();
+        evaluate(++mToken, TeXUtils.doubleEscapeTeX(tex));
+        mRenderNanos = System.nanoTime();
+        mLatencyTracker.record(LatencyTracker.PHASE_RENDER, mRenderNanos - start);
+    }
+
+    public void clear() {
+        if (mCurrentTeX.isEmpty()) {
+            return;
+        }
+        mCurrentTeX = "";
+        evaluate(++mToken, "");
+    }
+
+    public int getTypesetCount() {
+        return mTypesetCount.get();
+    }
+
+    public int getCacheHitCount() {
+        return mCacheHitCount.get();
+    }
+
+    public int getSkipCount() {
+        return mSkipCount;
+    }
+
+    private void evaluate(int token, String escapedTeX) {
+        String script = String.format(Locale.US, RENDER_URL_FORMAT, token, escapedTeX);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            mWebView.evaluateJavascript(script, null);
+        } else {
+            mWebView.loadUrl(script);
+        }
+    }
+
+    private class Callback {
+        @JavascriptInterface
+        public void onRendered(int token, boolean cached) {
+            // Called on the WebView's JavaScript thread; older tokens belong to a cleared or replaced formula.
+            if (token != mToken) {
+                return;
+            }
+            final long now = System.nanoTime();
+            if (cached) {
+                mCacheHitCount.incrementAndGet();
+            } else {
+                mTypesetCount.incrementAndGet();
+                mLatencyTracker.record(LatencyTracker.PHASE_TYPESET, now - mRenderNanos);
+            }
+            mLatencyTracker.record(LatencyTracker.PHASE_TOTAL, now - mRequestNanos);
+        }
+    }
+}
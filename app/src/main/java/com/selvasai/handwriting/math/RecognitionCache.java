@@ -0,0 +1,162 @@
+/*!
+ *  @date 2026/10/18
+ *  @file RecognitionCache.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of recognition results keyed by an ink fingerprint.
+ * The fingerprint covers the stroke points translated to the origin of their bounding box,
+ * the stroke boundaries, the active language/option and the engine revision, so the same
+ * drawing recognized with the same model is served without calling the engine.
+ */
+public class RecognitionCache {
+
+    private final static long DEFAULT_MAX_BYTES = 256 * 1024;
+    private final static int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final static long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private final static long FNV_PRIME = 0x100000001b3L;
+
+    private final LinkedHashMap<Long, RecognitionResult> mEntries = new LinkedHashMap<Long, RecognitionResult>(16, 0.75f, true);
+    private long mMaxBytes;
+    private long mSizeBytes = 0;
+    private int mHitCount = 0;
+    private int mMissCount = 0;
+    private int mEvictionCount = 0;
+
+    public RecognitionCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    public RecognitionCache(long maxBytes) {
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * Computes the cache key of the finished strokes in {@code strokes}.
+     * A stroke that is still being written is not part of the key.
+     */
+    public static long fingerprint(StrokeBuffer strokes, int language, int option, String revision) {
+        final int strokeCount = strokes.getStrokeCount();
+        final int pointCount = strokeCount == 0 ? 0 : strokes.getStrokeEnd(strokeCount - 1);
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        for (int i = 0; i < pointCount; i++) {
+            minX = Math.min(minX, strokes.getX(i));
+            minY = Math.min(minY, strokes.getY(i));
+        }
+
+        long hash = FNV_OFFSET_BASIS;
+        hash = mix(hash, language);
+        hash = mix(hash, option);
+        hash = mix(hash, revision == null ? 0 : revision.hashCode());
+        hash = mix(hash, strokeCount);
+        int stroke = 0;
+        for (int i = 0; i < pointCount; i++) {
+            if (i == strokes.getStrokeEnd(stroke)) {
+                hash = mix(hash, i);
+                stroke++;
+            }
+            hash = mix(hash, strokes.getX(i) - minX);
+            hash = mix(hash, strokes.getY(i) - minY);
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    public synchronized RecognitionResult get(long key) {
+        RecognitionResult value = mEntries.get(key);
+        if (value != null) {
+            mHitCount++;
+        } else {
+            mMissCount++;
+        }
+        return value;
+    }
+
+    /**
+     * Looks up an entry without counting a hit or miss.
+     */
+    public synchronized RecognitionResult peek(long key) {
+        return mEntries.get(key);
+    }
+
+    public synchronized void put(long key, RecognitionResult value) {
+        RecognitionResult previous = mEntries.put(key, value);
+        if (previous != null) {
+            mSizeBytes -= sizeOf(previous);
+        }
+        mSizeBytes += sizeOf(value);
+        trimToSize(mMaxBytes);
+    }
+
+    public synchronized void clear() {
+        mEntries.clear();
+        mSizeBytes = 0;
+    }
+
+    public synchronized void setMaxBytes(long maxBytes) {
+        mMaxBytes = maxBytes;
+        trimToSize(maxBytes);
+    }
+
+    public synchronized long getMaxBytes() {
+        return mMaxBytes;
+    }
+
+    public synchronized long getSizeBytes() {
+        return mSizeBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return mEntries.size();
+    }
+
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+
+    public synchronized int getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "RecognitionCache[entries=" + mEntries.size() + ", bytes=" + mSizeBytes + "/" + mMaxBytes
+                + ", hits=" + mHitCount + ", misses=" + mMissCount + ", evictions=" + mEvictionCount + "]";
+    }
+
+    private void trimToSize(long maxBytes) {
+        Iterator<Map.Entry<Long, RecognitionResult>> iterator = mEntries.entrySet().iterator();
+        while (mSizeBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<Long, RecognitionResult> eldest = iterator.next();
+            mSizeBytes -= sizeOf(eldest.getValue());
+            iterator.remove();
+            mEvictionCount++;
+        }
+    }
+
+    private static long sizeOf(RecognitionResult value) {
+        return ENTRY_OVERHEAD_BYTES + value.getSizeBytes();
+    }
+}
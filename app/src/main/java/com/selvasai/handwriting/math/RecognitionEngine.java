@@ -0,0 +1,74 @@
+/*!
+ *  @date 2026/10/18
+ *  @file RecognitionEngine.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+/**
+ * Operations the recognizer performs against the handwriting engine.
+ * All methods are called from the single engine thread owned by {@link RecognitionScheduler},
+ * so implementations do not need to be thread-safe.
+ */
+public interface RecognitionEngine {
+
+    int initialize();
+
+    int destroy();
+
+    void clearInk();
+
+    /**
+     * Adds one finished stroke to the ink.
+     * @param points interleaved x, y coordinates
+     * @param offset index of the first point of the stroke
+     * @param count number of points
+     */
+    void addStroke(int[] points, int offset, int count);
+
+    /**
+     * Replaces the ink with the given strokes.
+     * @param points interleaved x, y coordinates
+     * @param strokeEnds exclusive end index of the last point of every stroke
+     * @param strokeCount number of strokes
+     */
+    void setInk(int[] points, int[] strokeEnds, int strokeCount);
+
+    RecognitionResult recognize();
+
+    /**
+     * Recognizes the given strokes without changing the current ink.
+     * @param points interleaved x, y coordinates
+     * @param strokeEnds exclusive end index of the last point of every stroke
+     * @param strokeCount number of strokes
+     */
+    RecognitionResult recognize(int[] points, int[] strokeEnds, int strokeCount);
+
+    /**
+     * Limits how much of each result {@link #recognize} reads from the engine. By default only the top
+     * candidate is read, without stroke indices; use {@link #expand} to read more of a result when needed.
+     * @param candidates number of ranked candidates per block, at least 1
+     * @param strokeIndices whether blocks carry the indices of their strokes
+     */
+    void setResultDepth(int candidates, boolean strokeIndices);
+
+    /**
+     * Reads {@code result}, a result of {@link #recognize()} for the current ink, again with another
+     * depth, without recognizing again if it is still the engine's latest result.
+     * @param candidates number of ranked candidates per block, at least 1
+     * @param strokeIndices whether blocks carry the indices of their strokes
+     */
+    RecognitionResult expand(RecognitionResult result, int candidates, boolean strokeIndices);
+
+    /**
+     * Prepares the setting of a language so that a later {@link #setLanguage} only has to activate it.
+     */
+    void prepareLanguage(int language, int option);
+
+    void setLanguage(int language, int option);
+
+    String getVersion();
+}
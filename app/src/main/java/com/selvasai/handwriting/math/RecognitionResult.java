@@ -0,0 +1,208 @@
+/*!
+ *  @date 2026/10/18
+ *  @file RecognitionResult.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+/**
+ * Ranked candidates of one recognition, organized as lines of blocks.
+ * Each block holds its candidates in rank order and the indices of the strokes it was built from.
+ * The candidate of rank {@code r} for the whole ink is the rank {@code r} candidate of every block,
+ * blocks joined by a space and lines by a newline; ranks exist as far as every block has one.
+ * A result also carries the engine status of the recognition; a failed recognition yields an empty
+ * result whose status is not {@link #STATUS_SUCCESS}. Instances are immutable and may be passed between threads.
+ */
+public class RecognitionResult {
+
+    /** Status of a successful recognition, the engine's ERR_SUCCESS. */
+    public final static int STATUS_SUCCESS = 0;
+    public final static RecognitionResult EMPTY = new RecognitionResult(new Block[0][]);
+    final static int[] NO_STROKES = new int[0];
+
+    private final static int OBJECT_OVERHEAD_BYTES = 16;
+    private final static int STRING_OVERHEAD_BYTES = 40;
+
+    public static class Block {
+        private final String[] mCandidates;
+        private final int[] mStrokeIndices;
+
+        Block(String[] candidates, int[] strokeIndices) {
+            mCandidates = candidates;
+            mStrokeIndices = strokeIndices;
+        }
+
+        public int getCandidateCount() {
+            return mCandidates.length;
+        }
+
+        public String getCandidate(int rank) {
+            return mCandidates[rank];
+        }
+
+        /**
+         * Returns the number of strokes in the block, or 0 if stroke indices were not requested
+         * (see {@link RecognitionEngine#setResultDepth}).
+         */
+        public int getStrokeCount() {
+            return mStrokeIndices.length;
+        }
+
+        public int getStrokeIndex(int i) {
+            return mStrokeIndices[i];
+        }
+
+        long getSizeBytes() {
+            long size = 3 * OBJECT_OVERHEAD_BYTES + 4L * mStrokeIndices.length;
+            for (String candidate : mCandidates) {
+                size += STRING_OVERHEAD_BYTES + 2L * candidate.length();
+            }
+            return size;
+        }
+    }
+
+    private final Block[][] mLines;
+    private final int mRankCount;
+    private final int mStatus;
+    private String mDisplayString = null;
+
+    RecognitionResult(Block[][] lines) {
+        this(lines, STATUS_SUCCESS);
+    }
+
+    private RecognitionResult(Block[][] lines, int status) {
+        mLines = lines;
+        mStatus = status;
+        int rankCount = lines.length == 0 ? 0 : Integer.MAX_VALUE;
+        for (Block[] line : lines) {
+            for (Block block : line) {
+                rankCount = Math.min(rankCount, block.getCandidateCount());
+            }
+        }
+        mRankCount = rankCount;
+    }
+
+    /**
+     * Returns an empty result for a recognition that failed with the given engine status.
+     */
+    static RecognitionResult failure(int status) {
+        return new RecognitionResult(new Block[0][], status);
+    }
+
+    public int getStatus() {
+        return mStatus;
+    }
+
+    /**
+     * Returns false if the engine failed (e.g. was busy), so the result says nothing about the ink
+     * and must not be cached.
+     */
+    public boolean isSuccessful() {
+        return mStatus == STATUS_SUCCESS;
+    }
+
+    public boolean isEmpty() {
+        return mRankCount == 0;
+    }
+
+    public int getLineCount() {
+        return mLines.length;
+    }
+
+    public int getBlockCount(int line) {
+        return mLines[line].length;
+    }
+
+    public Block getBlock(int line, int block) {
+        return mLines[line][block];
+    }
+
+    /**
+     * Returns true if the blocks carry the indices of their strokes. Results read with a shallower
+     * depth can be read again deeper with {@link RecognitionEngine#expand}.
+     */
+    public boolean hasStrokeIndices() {
+        return mLines.length > 0 && mLines[0][0].getStrokeCount() > 0;
+    }
+
+    /**
+     * Returns the number of whole-ink candidates, i.e. the smallest candidate count of any block.
+     */
+    public int getRankCount() {
+        return mRankCount;
+    }
+
+    /**
+     * Returns the best candidate of the first line, or {@code null} if nothing was recognized.
+     */
+    public String getTopCandidate() {
+        return isEmpty() ? null : getLineText(0, 0);
+    }
+
+    public String getLineText(int rank, int line) {
+        StringBuilder sb = new StringBuilder();
+        appendLine(sb, rank, line);
+        return sb.toString();
+    }
+
+    public String getText(int rank) {
+        StringBuilder sb = new StringBuilder();
+        appendRank(sb, rank);
+        return sb.toString();
+    }
+
+    /**
+     * Returns every rank on its own line(s), the format shown in the candidate list.
+     * Built on first use.
+     */
+    public String toDisplayString() {
+        String displayString = mDisplayString;
+        if (displayString == null) {
+            StringBuilder sb = new StringBuilder();
+            for (int rank = 0; rank < mRankCount; rank++) {
+                appendRank(sb, rank);
+                sb.append('\n');
+            }
+            displayString = sb.toString();
+            mDisplayString = displayString;
+        }
+        return displayString;
+    }
+
+    long getSizeBytes() {
+        long size = OBJECT_OVERHEAD_BYTES * (1 + mLines.length);
+        for (Block[] line : mLines) {
+            for (Block block : line) {
+                size += block.getSizeBytes();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return toDisplayString();
+    }
+
+    private void appendRank(StringBuilder sb, int rank) {
+        for (int line = 0; line < mLines.length; line++) {
+            if (line > 0) {
+                sb.append('\n');
+            }
+            appendLine(sb, rank, line);
+        }
+    }
+
+    private void appendLine(StringBuilder sb, int rank, int line) {
+        Block[] blocks = mLines[line];
+        for (int i = 0; i < blocks.length; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(blocks[i].getCandidate(rank));
+        }
+    }
+}
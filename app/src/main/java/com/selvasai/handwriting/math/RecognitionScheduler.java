@@ -0,0 +1,282 @@
+/*!
+ *  @date 2026/10/18
+ *  @file RecognitionScheduler.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs every {@link RecognitionEngine} call on the {@link EngineExecutor} and delivers
+ * recognition results through the callback executor (the main thread on Android).
+ * Ink updates and requests run with interactive priority; speculative recognition runs in the
+ * background and is dropped when the background queue is full. Any other interactive task cancels
+ * a speculative run that has not started yet, since it would otherwise run on the changed engine state.
+ * A new recognition request supersedes the previous one: if the previous request has
+ * not started it is skipped, and if it is running its result is dropped.
+ * Requests made with an ink fingerprint are answered from the {@link RecognitionCache}
+ * when possible, and successful results are stored in it. A speculative request only fills
+ * the cache, so a later request for the same ink is served from it, or waits for a speculative
+ * run that is already running instead of recognizing the ink twice.
+ */
+public class RecognitionScheduler {
+
+    public interface OnRecognizedListener {
+        void onRecognized(RecognitionResult result);
+
+        /**
+         * Called instead of {@link #onRecognized} when the engine threw while recognizing.
+         */
+        void onRecognitionFailed(Throwable error);
+    }
+
+    private final RecognitionEngine mEngine;
+    private final Executor mCallbackExecutor;
+    private final EngineExecutor mEngineExecutor;
+    private final AtomicInteger mGeneration = new AtomicInteger();
+    private final RecognitionCache mCache = new RecognitionCache();
+    private final LatencyTracker mLatencyTracker = new LatencyTracker();
+    private Future<RecognitionResult> mPending = null;
+    private Future<?> mSpeculation = null;
+
+    public RecognitionScheduler(RecognitionEngine engine, Executor callbackExecutor) {
+        this(engine, callbackExecutor, EngineExecutor.getDefault());
+    }
+
+    public RecognitionScheduler(RecognitionEngine engine, Executor callbackExecutor, EngineExecutor engineExecutor) {
+        mEngine = engine;
+        mCallbackExecutor = callbackExecutor;
+        mEngineExecutor = engineExecutor;
+    }
+
+    public RecognitionEngine getEngine() {
+        return mEngine;
+    }
+
+    public RecognitionCache getCache() {
+        return mCache;
+    }
+
+    /**
+     * Returns the tracker receiving the queue and delivery phases of every request.
+     */
+    public LatencyTracker getLatencyTracker() {
+        return mLatencyTracker;
+    }
+
+    public EngineExecutor getEngineExecutor() {
+        return mEngineExecutor;
+    }
+
+    public void execute(Runnable task) {
+        cancelSpeculation();
+        mEngineExecutor.execute(task);
+    }
+
+    /**
+     * Runs {@code task} with the given {@link EngineExecutor} priority. Background tasks must not
+     * change engine state that a queued interactive task relies on.
+     * @throws java.util.concurrent.RejectedExecutionException if the background queue is full
+     */
+    public Future<?> execute(Runnable task, int priority) {
+        if (priority == EngineExecutor.PRIORITY_INTERACTIVE) {
+            cancelSpeculation();
+        }
+        return mEngineExecutor.submit(task, priority);
+    }
+
+    public <T> Future<T> submit(Callable<T> task) {
+        cancelSpeculation();
+        return mEngineExecutor.submit(task, EngineExecutor.PRIORITY_INTERACTIVE);
+    }
+
+    public <T> T call(Callable<T> task) {
+        try {
+            return submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public Future<RecognitionResult> recognize(OnRecognizedListener listener) {
+        return recognize(false, 0, listener);
+    }
+
+    public Future<RecognitionResult> recognize(long fingerprint, OnRecognizedListener listener) {
+        return recognize(true, fingerprint, listener);
+    }
+
+    private synchronized Future<RecognitionResult> recognize(final boolean cacheable, final long fingerprint,
+                                                  final OnRecognizedListener listener) {
+        cancel();
+        final int generation = mGeneration.get();
+        final RecognitionResult cached = cacheable ? mCache.get(fingerprint) : null;
+        if (cached != null) {
+            FutureTask<RecognitionResult> hit = new FutureTask<RecognitionResult>(new Callable<RecognitionResult>() {
+                @Override
+                public RecognitionResult call() {
+                    deliver(generation, listener, cached, System.nanoTime());
+                    return cached;
+                }
+            });
+            hit.run();
+            return hit;
+        }
+
+        final long requested = System.nanoTime();
+        mPending = mEngineExecutor.submit(new Callable<RecognitionResult>() {
+            @Override
+            public RecognitionResult call() {
+                if (generation != mGeneration.get()) {
+                    return null;
+                }
+                mLatencyTracker.record(LatencyTracker.PHASE_QUEUE, System.nanoTime() - requested);
+                RecognitionResult result = cacheable ? mCache.peek(fingerprint) : null;
+                if (result == null) {
+                    try {
+                        result = mEngine.recognize();
+                    } catch (RuntimeException e) {
+                        deliverFailure(generation, listener, e);
+                        throw e;
+                    }
+                    if (cacheable && result.isSuccessful()) {
+                        mCache.put(fingerprint, result);
+                    }
+                }
+                deliver(generation, listener, result, System.nanoTime());
+                return result;
+            }
+        }, EngineExecutor.PRIORITY_INTERACTIVE);
+        return mPending;
+    }
+
+    /**
+     * Reads more of {@code result}, a result for the current ink, with {@link RecognitionEngine#expand}
+     * and delivers it like a recognition request, which it supersedes. The expanded result replaces
+     * the cache entry of {@code fingerprint}.
+     */
+    public synchronized Future<RecognitionResult> expand(final RecognitionResult result, final int candidates,
+                                                         final boolean strokeIndices, final long fingerprint,
+                                                         final OnRecognizedListener listener) {
+        cancel();
+        final int generation = mGeneration.get();
+        final long requested = System.nanoTime();
+        mPending = mEngineExecutor.submit(new Callable<RecognitionResult>() {
+            @Override
+            public RecognitionResult call() {
+                if (generation != mGeneration.get()) {
+                    return null;
+                }
+                mLatencyTracker.record(LatencyTracker.PHASE_QUEUE, System.nanoTime() - requested);
+                RecognitionResult expanded;
+                try {
+                    expanded = mEngine.expand(result, candidates, strokeIndices);
+                } catch (RuntimeException e) {
+                    deliverFailure(generation, listener, e);
+                    throw e;
+                }
+                if (expanded.isSuccessful()) {
+                    mCache.put(fingerprint, expanded);
+                }
+                deliver(generation, listener, expanded, System.nanoTime());
+                return expanded;
+            }
+        }, EngineExecutor.PRIORITY_INTERACTIVE);
+        return mPending;
+    }
+
+    private void deliver(final int generation, final OnRecognizedListener listener, final RecognitionResult result,
+                         final long ready) {
+        if (listener == null) {
+            return;
+        }
+        mCallbackExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (generation == mGeneration.get()) {
+                    mLatencyTracker.record(LatencyTracker.PHASE_DELIVERY, System.nanoTime() - ready);
+                    listener.onRecognized(result);
+                }
+            }
+        });
+    }
+
+    private void deliverFailure(final int generation, final OnRecognizedListener listener, final Throwable error) {
+        if (listener == null) {
+            return;
+        }
+        mCallbackExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (generation == mGeneration.get()) {
+                    listener.onRecognitionFailed(error);
+                }
+            }
+        });
+    }
+
+    /**
+     * Recognizes the current ink in the background and stores the result in the cache
+     * without delivering it. Runs after the ink updates made before this call, and is skipped
+     * if the background queue is full. A speculative run that throws is dropped; the request that
+     * follows recognizes the ink again and reports the failure to its listener.
+     */
+    public synchronized void speculate(final long fingerprint) {
+        cancelSpeculation();
+        if (mCache.peek(fingerprint) != null) {
+            return;
+        }
+        try {
+            mSpeculation = mEngineExecutor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    if (mCache.peek(fingerprint) == null) {
+                        RecognitionResult result = mEngine.recognize();
+                        if (result.isSuccessful()) {
+                            mCache.put(fingerprint, result);
+                        }
+                    }
+                }
+            }, EngineExecutor.PRIORITY_BACKGROUND);
+        } catch (RejectedExecutionException e) {
+            mSpeculation = null;
+        }
+    }
+
+    public synchronized void cancelSpeculation() {
+        if (mSpeculation != null) {
+            mSpeculation.cancel(false);
+            mSpeculation = null;
+        }
+    }
+
+    public synchronized void cancel() {
+        mGeneration.incrementAndGet();
+        if (mPending != null) {
+            mPending.cancel(false);
+            mPending = null;
+        }
+    }
+
+    /**
+     * Drops the pending requests of this scheduler. Tasks already queued still run, and the shared
+     * engine thread keeps running.
+     */
+    public void shutdown() {
+        cancel();
+        cancelSpeculation();
+    }
+}
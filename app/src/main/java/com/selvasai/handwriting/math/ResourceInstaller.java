@@ -0,0 +1,379 @@
+/*!
+ *  @date 2026/10/18
+ *  @file ResourceInstaller.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+
+import com.selvy.spmath.DHWR;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * Copies the engine resources from the assets into the files directory in the background.
+ * A manifest next to the files records the size and CRC-32 of every installed resource and the
+ * package update time it was checked against. A resource is skipped while the app is not updated and
+ * the installed file still has the recorded size; after an update it is copied only if its size or
+ * checksum changed. Files are streamed through a fixed buffer on a small thread pool and written to a
+ * temporary file that is renamed into place, so a half-written resource is never picked up.
+ */
+public class ResourceInstaller {
+
+    private final static String THREAD_NAME = "ResourceInstaller";
+    private final static String MANIFEST_NAME = ".resources";
+    private final static String MANIFEST_PACKAGE_KEY = "package.lastUpdateTime";
+    private final static String TEMP_SUFFIX = ".tmp";
+    private final static int BUFFER_SIZE = 64 * 1024;
+    private final static int MAX_THREADS = 3;
+
+    private final Context mContext;
+    private final String mAssetPath;
+    private final File mTargetDir;
+    private FutureTask<Boolean> mInstallation = null;
+    private final AtomicInteger mCopiedCount = new AtomicInteger();
+    private final AtomicInteger mSkippedCount = new AtomicInteger();
+    private volatile long mElapsedNanos = 0;
+
+    public ResourceInstaller(Context context, String assetPath) {
+        mContext = context.getApplicationContext();
+        mAssetPath = assetPath;
+        mTargetDir = mContext.getFilesDir();
+    }
+
+    /**
+     * Starts the installation once and returns its future, which yields whether every resource is in place.
+     */
+    public synchronized Future<Boolean> install() {
+        if (mInstallation == null) {
+            mInstallation = new FutureTask<Boolean>(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return installAll();
+                }
+            });
+            new Thread(mInstallation, THREAD_NAME).start();
+        }
+        return mInstallation;
+    }
+
+    public synchronized boolean isReady() {
+        if (mInstallation == null || !mInstallation.isDone()) {
+            return false;
+        }
+        try {
+            return mInstallation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    public int getCopiedCount() {
+        return mCopiedCount.get();
+    }
+
+    public int getSkippedCount() {
+        return mSkippedCount.get();
+    }
+
+    public long getElapsedNanos() {
+        return mElapsedNanos;
+    }
+
+    private boolean installAll() {
+        final long start = System.nanoTime();
+        String[] names;
+        try {
+            names = mContext.getAssets().list(mAssetPath);
+        } catch (IOException e) {
+            DHWR.PrintLog(DHWR.LEVEL_ERROR, DHWR.TAG, "Cannot list " + mAssetPath + " : " + e);
+            return false;
+        }
+        if (names == null || names.length == 0) {
+            return true;
+        }
+
+        final Properties manifest = loadManifest();
+        final String packageStamp = getPackageStamp();
+        final boolean packageChanged = !packageStamp.equals(manifest.getProperty(MANIFEST_PACKAGE_KEY));
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(names.length, MAX_THREADS), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, THREAD_NAME);
+            }
+        });
+        ArrayList<Future<Entry>> results = new ArrayList<Future<Entry>>(names.length);
+        for (final String name : names) {
+            final Entry recorded = Entry.parse(manifest.getProperty(name));
+            results.add(executor.submit(new Callable<Entry>() {
+                @Override
+                public Entry call() throws IOException {
+                    return installOne(name, recorded, packageChanged);
+                }
+            }));
+        }
+        executor.shutdown();
+
+        boolean success = true;
+        Properties updated = new Properties();
+        updated.setProperty(MANIFEST_PACKAGE_KEY, packageStamp);
+        for (int i = 0; i < names.length; i++) {
+            try {
+                updated.setProperty(names[i], results.get(i).get().toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                success = false;
+            } catch (ExecutionException e) {
+                DHWR.PrintLog(DHWR.LEVEL_ERROR, DHWR.TAG, "Cannot install " + names[i] + " : " + e.getCause());
+                success = false;
+            }
+        }
+        saveManifest(updated);
+        mElapsedNanos = System.nanoTime() - start;
+        if (DHWR.IsLogEnabled(DHWR.LEVEL_INFO)) {
+            DHWR.PrintLog(DHWR.LEVEL_INFO, DHWR.TAG, "Resources: " + mCopiedCount.get() + " copied, "
+                    + mSkippedCount.get() + " unchanged, " + mElapsedNanos / 1000000 + "ms");
+        }
+        return success;
+    }
+
+    private Entry installOne(String name, Entry recorded, boolean packageChanged) throws IOException {
+        final String assetName = mAssetPath + "/" + name;
+        final File target = new File(mTargetDir, name);
+        final boolean installed = recorded != null && target.length() == recorded.size;
+        if (installed && !packageChanged) {
+            mSkippedCount.incrementAndGet();
+            return recorded;
+        }
+        if (installed) {
+            Entry asset = copy(assetName, null);
+            if (asset.equals(recorded)) {
+                mSkippedCount.incrementAndGet();
+                return recorded;
+            }
+        }
+
+        File temp = new File(mTargetDir, name + TEMP_SUFFIX);
+        Entry entry = copy(assetName, temp);
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("Cannot rename " + temp + " to " + target);
+        }
+        mCopiedCount.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Streams an asset into {@code target}, or only checksums it if {@code target} is null.
+     */
+    private Entry copy(String assetName, File target) throws IOException {
+        ReadableByteChannel source = openAsset(assetName);
+        try {
+            FileOutputStream output = target == null ? null : new FileOutputStream(target);
+            try {
+                FileChannel sink = output == null ? null : output.getChannel();
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                CRC32 crc = new CRC32();
+                long size = 0;
+                int read;
+                while ((read = source.read(buffer)) != -1) {
+                    crc.update(buffer.array(), 0, read);
+                    size += read;
+                    buffer.flip();
+                    while (sink != null && buffer.hasRemaining()) {
+                        sink.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                if (output != null) {
+                    output.getFD().sync();
+                }
+                return new Entry(size, crc.getValue());
+            } finally {
+                if (output != null) {
+                    output.close();
+                }
+            }
+        } finally {
+            source.close();
+        }
+    }
+
+    private ReadableByteChannel openAsset(String assetName) throws IOException {
+        AssetManager assets = mContext.getAssets();
+        try {
+            // Uncompressed assets (see noCompress in build.gradle) are read straight from the APK.
+            AssetFileDescriptor descriptor = assets.openFd(assetName);
+            return new AssetChannel(descriptor);
+        } catch (IOException e) {
+            return Channels.newChannel(assets.open(assetName, AssetManager.ACCESS_STREAMING));
+        }
+    }
+
+    private String getPackageStamp() {
+        try {
+            return String.valueOf(mContext.getPackageManager()
+                    .getPackageInfo(mContext.getPackageName(), 0).lastUpdateTime);
+        } catch (PackageManager.NameNotFoundException e) {
+            return "";
+        }
+    }
+
+    private Properties loadManifest() {
+        Properties manifest = new Properties();
+        File file = new File(mTargetDir, MANIFEST_NAME);
+        if (!file.exists()) {
+            return manifest;
+        }
+        try {
+            FileInputStream input = new FileInputStream(file);
+            try {
+                manifest.load(input);
+            } finally {
+                input.close();
+            }
+        } catch (IOException e) {
+            DHWR.PrintLog(DHWR.LEVEL_ERROR, DHWR.TAG, "Cannot read " + file + " : " + e);
+            manifest.clear();
+        }
+        return manifest;
+    }
+
+    private void saveManifest(Properties manifest) {
+        File temp = new File(mTargetDir, MANIFEST_NAME + TEMP_SUFFIX);
+        try {
+            FileOutputStream output = new FileOutputStream(temp);
+            try {
+                manifest.store(output, null);
+                output.getFD().sync();
+            } finally {
+                output.close();
+            }
+            if (!temp.renameTo(new File(mTargetDir, MANIFEST_NAME))) {
+                throw new IOException("Cannot rename " + temp);
+            }
+        } catch (IOException e) {
+            DHWR.PrintLog(DHWR.LEVEL_ERROR, DHWR.TAG, "Cannot write manifest : " + e);
+            temp.delete();
+        }
+    }
+
+    private static class Entry {
+        final long size;
+        final long crc;
+
+        Entry(long size, long crc) {
+            this.size = size;
+            this.crc = crc;
+        }
+
+        static Entry parse(String value) {
+            if (value == null) {
+                return null;
+            }
+            int comma = value.indexOf(',');
+            try {
+                return new Entry(Long.parseLong(value.substring(0, comma)), Long.parseLong(value.substring(comma + 1), 16));
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry other = (Entry) o;
+            return size == other.size && crc == other.crc;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (size ^ crc);
+        }
+
+        @Override
+        public String toString() {
+            return size + "," + Long.toHexString(crc);
+        }
+    }
+
+    /**
+     * Reads an uncompressed asset with positional reads on the APK's file channel.
+     */
+    private static class AssetChannel implements ReadableByteChannel {
+        private final AssetFileDescriptor mDescriptor;
+        private final FileInputStream mInput;
+        private final FileChannel mChannel;
+        private long mPosition;
+        private final long mEnd;
+
+        AssetChannel(AssetFileDescriptor descriptor) throws IOException {
+            mDescriptor = descriptor;
+            mInput = descriptor.createInputStream();
+            mChannel = mInput.getChannel();
+            mPosition = descriptor.getStartOffset();
+            mEnd = mPosition + descriptor.getLength();
+        }
+
+        @Override
+        public int read(ByteBuffer buffer) throws IOException {
+            if (mPosition >= mEnd) {
+                return -1;
+            }
+            final int limit = buffer.limit();
+            if (buffer.remaining() > mEnd - mPosition) {
+                buffer.limit(buffer.position() + (int) (mEnd - mPosition));
+            }
+            try {
+                int read = mChannel.read(buffer, mPosition);
+                if (read > 0) {
+                    mPosition += read;
+                }
+                return read;
+            } finally {
+                buffer.limit(limit);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return mChannel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            mInput.close();
+            mDescriptor.close();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*!
+ *  @date 2026/10/18
+ *  @file StrokeBuffer.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import java.util.Arrays;
+
+/**
+ * Growable primitive store for the points of an ink.
+ * Points are kept interleaved (x0, y0, x1, y1, ...) and strokes are recorded as the
+ * exclusive end index of their last point, so adding a point never allocates once the
+ * buffer has grown to the size of a typical ink. Timestamps are optional and stored in
+ * milliseconds relative to the first point of the ink.
+ */
+public class StrokeBuffer {
+
+    private final static int INITIAL_POINTS = 1024;
+    private final static int INITIAL_STROKES = 64;
+
+    private int[] mPoints = new int[INITIAL_POINTS * 2];
+    private int[] mTimes = new int[INITIAL_POINTS];
+    private long mTimeBase = 0;
+    private int mPointCount = 0;
+    private int[] mStrokeEnds = new int[INITIAL_STROKES];
+    private int mStrokeCount = 0;
+
+    public void addPoint(int x, int y) {
+        addPoint(x, y, mTimeBase);
+    }
+
+    public void addPoint(int x, int y, long time) {
+        if (mPointCount == 0) {
+            mTimeBase = time;
+        }
+        ensureCapacity(mPointCount + 1);
+        mPoints[mPointCount * 2] = x;
+        mPoints[mPointCount * 2 + 1] = y;
+        mTimes[mPointCount] = (int) (time - mTimeBase);
+        mPointCount++;
+    }
+
+    /**
+     * Replaces the points of the stroke that is being written.
+     * @param points interleaved x, y coordinates
+     * @param times timestamps relative to the first point of the ink
+     * @param count number of points
+     */
+    public void replaceOpenStroke(int[] points, int[] times, int count) {
+        final int start = getStrokeStart(mStrokeCount);
+        ensureCapacity(start + count);
+        System.arraycopy(points, 0, mPoints, start * 2, count * 2);
+        System.arraycopy(times, 0, mTimes, start, count);
+        mPointCount = start + count;
+    }
+
+    private void ensureCapacity(int pointCount) {
+        if (pointCount > mTimes.length) {
+            int capacity = Math.max(pointCount, mTimes.length * 2);
+            mPoints = Arrays.copyOf(mPoints, capacity * 2);
+            mTimes = Arrays.copyOf(mTimes, capacity);
+        }
+    }
+
+    /**
+     * Closes the stroke that is being written.
+     * @return false if no point was added since the previous stroke
+     */
+    public boolean endStroke() {
+        if (!hasOpenStroke()) {
+            return false;
+        }
+        if (mStrokeCount == mStrokeEnds.length) {
+            mStrokeEnds = Arrays.copyOf(mStrokeEnds, mStrokeEnds.length * 2);
+        }
+        mStrokeEnds[mStrokeCount++] = mPointCount;
+        return true;
+    }
+
+    /**
+     * Removes the last closed stroke, and any points of the stroke being written.
+     * @return false if there is no closed stroke
+     */
+    public boolean removeLastStroke() {
+        if (mStrokeCount == 0) {
+            return false;
+        }
+        mStrokeCount--;
+        mPointCount = getStrokeStart(mStrokeCount);
+        return true;
+    }
+
+    /**
+     * Removes the given closed strokes, compacting the remaining ones in place. Indices out of range are
+     * ignored and the points of the stroke being written are discarded.
+     * @param strokes indices of the strokes to remove, in any order
+     * @param count number of indices
+     * @return number of strokes removed
+     */
+    public int removeStrokes(int[] strokes, int count) {
+        boolean[] removed = new boolean[mStrokeCount];
+        for (int i = 0; i < count; i++) {
+            if (strokes[i] >= 0 && strokes[i] < mStrokeCount) {
+                removed[strokes[i]] = true;
+            }
+        }
+        int strokeCount = 0;
+        int pointCount = 0;
+        for (int stroke = 0; stroke < mStrokeCount; stroke++) {
+            if (removed[stroke]) {
+                continue;
+            }
+            final int start = getStrokeStart(stroke);
+            final int length = mStrokeEnds[stroke] - start;
+            System.arraycopy(mPoints, start * 2, mPoints, pointCount * 2, length * 2);
+            System.arraycopy(mTimes, start, mTimes, pointCount, length);
+            pointCount += length;
+            mStrokeEnds[strokeCount++] = pointCount;
+        }
+        final int removedCount = mStrokeCount - strokeCount;
+        mStrokeCount = strokeCount;
+        mPointCount = pointCount;
+        return removedCount;
+    }
+
+    public void clear() {
+        mPointCount = 0;
+        mStrokeCount = 0;
+    }
+
+    public boolean isEmpty() {
+        return mPointCount == 0;
+    }
+
+    /**
+     * @return true if points were added since the last {@link #endStroke()}
+     */
+    public boolean hasOpenStroke() {
+        return mPointCount != getStrokeStart(mStrokeCount);
+    }
+
+    public int getPointCount() {
+        return mPointCount;
+    }
+
+    public int getStrokeCount() {
+        return mStrokeCount;
+    }
+
+    public int getStrokeStart(int stroke) {
+        return stroke == 0 ? 0 : mStrokeEnds[stroke - 1];
+    }
+
+    public int getStrokeEnd(int stroke) {
+        return mStrokeEnds[stroke];
+    }
+
+    public int getX(int index) {
+        return mPoints[index * 2];
+    }
+
+    public int getY(int index) {
+        return mPoints[index * 2 + 1];
+    }
+
+    public int getTime(int index) {
+        return mTimes[index];
+    }
+
+    /**
+     * Returns the backing array of interleaved coordinates. Only the first
+     * {@link #getPointCount()} * 2 entries are valid, and the array is replaced when the buffer grows.
+     */
+    public int[] getPoints() {
+        return mPoints;
+    }
+
+    /**
+     * Returns the backing array of timestamps, see {@link #getPoints()}.
+     */
+    public int[] getTimes() {
+        return mTimes;
+    }
+
+    /**
+     * Returns the backing array of stroke end indices, see {@link #getPoints()}.
+     */
+    public int[] getStrokeEnds() {
+        return mStrokeEnds;
+    }
+
+    public int[] copyStroke(int stroke) {
+        return Arrays.copyOfRange(mPoints, getStrokeStart(stroke) * 2, getStrokeEnd(stroke) * 2);
+    }
+}
@@ -0,0 +1,241 @@
+/*!
+ *  @date 2026/10/18
+ *  @file StrokeFilter.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import java.util.Arrays;
+
+/**
+ * Reduces the points of a finished stroke before it is handed to the engine.
+ * Stages run in this order and each one is disabled when its parameter is 0:
+ * <ul>
+ * <li>time-uniform resampling to a fixed interval (the DHWR docs recommend 10~20 ms); strokes
+ * sampled more sparsely than that are left as they are, so resampling never adds points,</li>
+ * <li>a minimum-distance filter that drops points too close to the previous kept point,</li>
+ * <li>Douglas-Peucker simplification with the given tolerance.</li>
+ * </ul>
+ * The first and last points of a stroke are always kept. Not thread-safe; scratch buffers are reused.
+ */
+public class StrokeFilter {
+
+    private int mResampleInterval = 0;
+    private int mMinDistance = 1;
+    private float mTolerance = 0;
+
+    private int[] mPoints = new int[512];
+    private int[] mTimes = new int[256];
+    private int[] mOutPoints = new int[512];
+    private int[] mOutTimes = new int[256];
+    private boolean[] mKeep = new boolean[256];
+    private int[] mStack = new int[514];
+
+    private long mInputPointCount = 0;
+    private long mOutputPointCount = 0;
+
+    public void setResampleInterval(int intervalMillis) {
+        mResampleInterval = intervalMillis;
+    }
+
+    public int getResampleInterval() {
+        return mResampleInterval;
+    }
+
+    public void setMinDistance(int distance) {
+        mMinDistance = distance;
+    }
+
+    public int getMinDistance() {
+        return mMinDistance;
+    }
+
+    public void setTolerance(float tolerance) {
+        mTolerance = tolerance;
+    }
+
+    public float getTolerance() {
+        return mTolerance;
+    }
+
+    public long getInputPointCount() {
+        return mInputPointCount;
+    }
+
+    public long getOutputPointCount() {
+        return mOutputPointCount;
+    }
+
+    public void resetCounters() {
+        mInputPointCount = 0;
+        mOutputPointCount = 0;
+    }
+
+    /**
+     * Filters the stroke that is being written in {@code strokes}, in place.
+     */
+    public void apply(StrokeBuffer strokes) {
+        final int start = strokes.getStrokeStart(strokes.getStrokeCount());
+        int count = strokes.getPointCount() - start;
+        mInputPointCount += count;
+        if (count > 2) {
+            ensureCapacity(count);
+            System.arraycopy(strokes.getPoints(), start * 2, mPoints, 0, count * 2);
+            System.arraycopy(strokes.getTimes(), start, mTimes, 0, count);
+            if (mResampleInterval > 0) {
+                count = resample(count);
+            }
+            if (mMinDistance > 0) {
+                count = dropClosePoints(count);
+            }
+            if (mTolerance > 0) {
+                count = simplify(count);
+            }
+            strokes.replaceOpenStroke(mPoints, mTimes, count);
+        }
+        mOutputPointCount += count;
+    }
+
+    private int resample(int count) {
+        final int duration = mTimes[count - 1] - mTimes[0];
+        if (duration <= 0) {
+            return count;
+        }
+        final int outCount = duration / mResampleInterval + 2;
+        if (outCount >= count) {
+            return count;
+        }
+        ensureScratchCapacity(outCount);
+        int n = 0;
+        int segment = 0;
+        for (int time = mTimes[0]; time < mTimes[count - 1]; time += mResampleInterval) {
+            while (mTimes[segment + 1] < time) {
+                segment++;
+            }
+            int t0 = mTimes[segment];
+            int t1 = mTimes[segment + 1];
+            float ratio = (t1 == t0) ? 0 : (float) (time - t0) / (t1 - t0);
+            mOutPoints[n * 2] = Math.round(mPoints[segment * 2] + ratio * (mPoints[segment * 2 + 2] - mPoints[segment * 2]));
+            mOutPoints[n * 2 + 1] = Math.round(mPoints[segment * 2 + 1] + ratio * (mPoints[segment * 2 + 3] - mPoints[segment * 2 + 1]));
+            mOutTimes[n] = time;
+            n++;
+        }
+        mOutPoints[n * 2] = mPoints[count * 2 - 2];
+        mOutPoints[n * 2 + 1] = mPoints[count * 2 - 1];
+        mOutTimes[n] = mTimes[count - 1];
+        n++;
+        swapBuffers();
+        return n;
+    }
+
+    private int dropClosePoints(int count) {
+        final long minDistanceSquared = (long) mMinDistance * mMinDistance;
+        int n = 1;
+        for (int i = 1; i < count - 1; i++) {
+            if (distanceSquared(i, n - 1) >= minDistanceSquared) {
+                copyPoint(i, n++);
+            }
+        }
+        // The last point replaces the previous kept point when the two are too close.
+        if (n > 1 && distanceSquared(count - 1, n - 1) < minDistanceSquared) {
+            n--;
+        }
+        copyPoint(count - 1, n++);
+        return n;
+    }
+
+    private int simplify(int count) {
+        final double toleranceSquared = (double) mTolerance * mTolerance;
+        Arrays.fill(mKeep, 0, count, false);
+        mKeep[0] = true;
+        mKeep[count - 1] = true;
+        int top = 0;
+        mStack[top++] = 0;
+        mStack[top++] = count - 1;
+        while (top > 0) {
+            int last = mStack[--top];
+            int first = mStack[--top];
+            double maxDistance = 0;
+            int index = -1;
+            for (int i = first + 1; i < last; i++) {
+                double distance = segmentDistanceSquared(i, first, last);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    index = i;
+                }
+            }
+            if (index >= 0 && maxDistance > toleranceSquared) {
+                mKeep[index] = true;
+                mStack[top++] = first;
+                mStack[top++] = index;
+                mStack[top++] = index;
+                mStack[top++] = last;
+            }
+        }
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (mKeep[i]) {
+                copyPoint(i, n++);
+            }
+        }
+        return n;
+    }
+
+    private void copyPoint(int from, int to) {
+        mPoints[to * 2] = mPoints[from * 2];
+        mPoints[to * 2 + 1] = mPoints[from * 2 + 1];
+        mTimes[to] = mTimes[from];
+    }
+
+    private long distanceSquared(int a, int b) {
+        long dx = mPoints[a * 2] - mPoints[b * 2];
+        long dy = mPoints[a * 2 + 1] - mPoints[b * 2 + 1];
+        return dx * dx + dy * dy;
+    }
+
+    private double segmentDistanceSquared(int p, int a, int b) {
+        double ax = mPoints[a * 2];
+        double ay = mPoints[a * 2 + 1];
+        double dx = mPoints[b * 2] - ax;
+        double dy = mPoints[b * 2 + 1] - ay;
+        double px = mPoints[p * 2] - ax;
+        double py = mPoints[p * 2 + 1] - ay;
+        double length = dx * dx + dy * dy;
+        if (length == 0) {
+            return px * px + py * py;
+        }
+        double cross = px * dy - py * dx;
+        return cross * cross / length;
+    }
+
+    private void ensureCapacity(int count) {
+        if (mTimes.length < count) {
+            mPoints = new int[count * 2];
+            mTimes = new int[count];
+        }
+        ensureScratchCapacity(count);
+    }
+
+    private void ensureScratchCapacity(int count) {
+        if (mOutTimes.length < count) {
+            mOutPoints = new int[count * 2];
+            mOutTimes = new int[count];
+        }
+        if (mKeep.length < count) {
+            mKeep = new boolean[count];
+            mStack = new int[count * 2 + 2];
+        }
+    }
+
+    private void swapBuffers() {
+        int[] points = mPoints;
+        int[] times = mTimes;
+        mPoints = mOutPoints;
+        mTimes = mOutTimes;
+        mOutPoints = points;
+        mOutTimes = times;
+    }
+}
@@ -0,0 +1,34 @@
+/*!
+ *  @date 2026/10/18
+ *  @file TeXUtils.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+public final class TeXUtils {
+
+    private TeXUtils() {
+    }
+
+    /**
+     * Escapes a TeX string so it can be embedded in a single-quoted JavaScript string literal.
+     */
+    public static String doubleEscapeTeX(String s) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) == '\'') {
+                sb.append("\\");
+            }
+            if (s.charAt(i) != '\n') {
+                sb.append(s.charAt(i));
+            }
+            if (s.charAt(i) == '\\') {
+                sb.append("\\");
+            }
+        }
+        return sb.toString();
+    }
+}
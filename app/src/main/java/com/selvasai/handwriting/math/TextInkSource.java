@@ -0,0 +1,97 @@
+/*!
+ *  @date 2026/10/18
+ *  @file TextInkSource.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads one ink per line in the form {@code id<TAB>x,y x,y ...;x,y ...},
+ * where strokes are separated by ';' and points by ' '.
+ */
+public class TextInkSource implements InkSource {
+
+    private final BufferedReader mReader;
+
+    public TextInkSource(Reader reader) {
+        mReader = new BufferedReader(reader);
+    }
+
+    @Override
+    public String next(StrokeBuffer ink) throws IOException {
+        String line;
+        do {
+            line = mReader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isEmpty());
+
+        final int tab = line.indexOf('\t');
+        if (tab < 0) {
+            throw new IOException("Missing ink id: " + line);
+        }
+        ink.clear();
+        int i = tab + 1;
+        final int length = line.length();
+        while (i < length) {
+            char c = line.charAt(i);
+            if (c == ';') {
+                ink.endStroke();
+                i++;
+            } else if (c == ' ') {
+                i++;
+            } else {
+                int comma = line.indexOf(',', i);
+                int end = i;
+                while (end < length && line.charAt(end) != ' ' && line.charAt(end) != ';') {
+                    end++;
+                }
+                if (comma < 0 || comma > end) {
+                    throw new IOException("Malformed point at " + i + ": " + line);
+                }
+                ink.addPoint(parseInt(line, i, comma), parseInt(line, comma + 1, end));
+                i = end;
+            }
+        }
+        ink.endStroke();
+        return line.substring(0, tab);
+    }
+
+    /**
+     * Parses a decimal int. A lone sign and values out of the int range are malformed.
+     */
+    private static int parseInt(String s, int start, int end) throws IOException {
+        if (start >= end) {
+            throw new IOException("Empty coordinate: " + s);
+        }
+        final boolean negative = s.charAt(start) == '-';
+        final int first = negative ? start + 1 : start;
+        if (first == end) {
+            throw new IOException("Invalid coordinate: " + s.substring(start, end));
+        }
+        // Accumulated as a negative number, which also holds Integer.MIN_VALUE.
+        final int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int value = 0;
+        for (int i = first; i < end; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || value < (limit + digit) / 10) {
+                throw new IOException("Invalid coordinate: " + s.substring(start, end));
+            }
+            value = value * 10 - digit;
+        }
+        return negative ? value : -value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mReader.close();
+    }
+}
@@ -9,119 +9,477 @@
 package com.selvasai.handwriting.math;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.SparseLongArray;
 
 import com.selvy.spmath.DHWR;
 
-// import java.util.Locale;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 public class WritingRecognizer {
 
-    private final static int MAX_CANDIDATES = 5;
+    public interface OnRecognizedListener extends RecognitionScheduler.OnRecognizedListener {
+    }
+
+    public interface OnInitializedListener {
+        void onInitialized(int status);
+    }
+
+    public static class StartupTimings {
+        public long libraryLoadNanos;
+        public long resourceWaitNanos;
+        public long licenseCheckNanos;
+        public long modelLoadNanos;
+        public long totalNanos;
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "library load %.1f ms, resource wait %.1f ms, license check %.1f ms, model load %.1f ms, total %.1f ms",
+                    libraryLoadNanos / 1e6, resourceWaitNanos / 1e6, licenseCheckNanos / 1e6, modelLoadNanos / 1e6, totalNanos / 1e6);
+        }
+    }
+
+    private final static long DEFAULT_AUTO_RECOGNITION_DELAY = 400;
 
     private Context mContext;
-    private DHWR.Ink mInk;
-    private DHWR.Setting mSetting;
-    private DHWR.Result mResult;
+    private final Future<?> mResources;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private RecognitionScheduler mScheduler;
+    private final StrokeBuffer mStrokes = new StrokeBuffer();
+    private final StrokeFilter mStrokeFilter = new StrokeFilter();
+    private int mLanguage = DHWR.DLANG_MATH_MIDDLE_EXPANSION;
+    private int mOption = DHWR.DTYPE_MATH_EX;
+    private volatile String mRevision = null;
+    private Future<Integer> mInitialization;
+    private final StartupTimings mStartupTimings = new StartupTimings();
+    private boolean mAutoRecognitionEnabled = true;
+    private final SparseLongArray mAutoRecognitionDelays = new SparseLongArray();
+    // Bumped on every change of the finished strokes; main thread only.
+    private int mInkRevision = 0;
+    // The engine's ink lags mStrokes after an undo or erase until the next recognition sends it over.
+    private boolean mInkStale = false;
+    private final Runnable mSpeculation = new Runnable() {
+        @Override
+        public void run() {
+            // Before initialization there is no revision to key the result with; see initialize().
+            if (mRevision == null) {
+                return;
+            }
+            syncInk();
+            mScheduler.speculate(fingerprint());
+        }
+    };
 
     public WritingRecognizer(Context context) {
+        this(context, null);
+    }
+
+    /**
+     * @param resources completes once the engine resources are installed; the engine is created after it
+     */
+    public WritingRecognizer(Context context, Future<?> resources) {
         mContext = context;
+        mResources = resources;
+        // Pen-up idle time before recognizing in the background, per language (see DHWR "Delay time").
+        mAutoRecognitionDelays.put(DHWR.DLANG_MATH_MIDDLE_EXPANSION, 400);
+        mAutoRecognitionDelays.put(DHWR.DLANG_MATH_CHEMICAL, 300);
         initialize();
     }
 
-    private int initialize() {
+    /**
+     * Brings the engine up on the engine thread. Ink, language and recognition requests made meanwhile
+     * are queued behind it, so the canvas can be used right away.
+     */
+    private void initialize() {
+        final long start = System.nanoTime();
         final String filesPath = mContext.getFilesDir().getAbsolutePath();
-        int status = DHWR.Create(filesPath + "/" + "license.key");
-        DHWR.SetExternalResourcePath(filesPath.toCharArray());
+        final DHWREngine engine = new DHWREngine(filesPath);
+        mScheduler = new RecognitionScheduler(engine, new MainThreadExecutor(mHandler));
+        engine.setLatencyTracker(mScheduler.getLatencyTracker());
+        mInitialization = mScheduler.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                final long waitStart = System.nanoTime();
+                if (mResources != null) {
+                    try {
+                        mResources.get();
+                    } catch (ExecutionException e) {
+                        // The engine reports missing resources through its own status.
+                        DHWR.PrintLog(DHWR.LEVEL_ERROR, DHWR.TAG, "Resource installation failed : " + e.getCause());
+                    }
+                }
+                mStartupTimings.resourceWaitNanos = System.nanoTime() - waitStart;
+                int status = engine.initialize();
+                mRevision = engine.getVersion();
+                // Ink written while the engine was starting was not speculated on.
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!mStrokes.hasOpenStroke()) {
+                            scheduleSpeculation();
+                        }
+                    }
+                });
+                mStartupTimings.libraryLoadNanos = engine.getLibraryLoadNanos();
+                mStartupTimings.licenseCheckNanos = engine.getLicenseCheckNanos();
+                mStartupTimings.modelLoadNanos = engine.getModelLoadNanos();
+                mStartupTimings.totalNanos = System.nanoTime() - start;
+                if (DHWR.IsLogEnabled(DHWR.LEVEL_INFO)) {
+                    DHWR.PrintLog(DHWR.LEVEL_INFO, DHWR.TAG, "Engine startup : " + mStartupTimings);
+                }
+                return status;
+            }
+        });
+    }
 
-        mInk = new DHWR.Ink();
-        mSetting = new DHWR.Setting();
-        mResult = new DHWR.Result();
+    /**
+     * Returns the engine initialization, which yields the status of DHWR.Create.
+     */
+    public Future<Integer> getInitialization() {
+        return mInitialization;
+    }
 
-        DHWR.SetRecognitionMode(mSetting.GetHandle(), DHWR.MULTICHAR);
-        DHWR.SetCandidateSize(mSetting.GetHandle(), MAX_CANDIDATES);
-        DHWR.ClearLanguage(mSetting.GetHandle());
-        DHWR.AddLanguage(mSetting.GetHandle(), DHWR.DLANG_MATH_MIDDLE_EXPANSION, DHWR.DTYPE_MATH_EX);
-        DHWR.SetAttribute(mSetting.GetHandle());
+    public boolean isInitialized() {
+        return mInitialization.isDone();
+    }
 
-        return status;
+    /**
+     * Calls {@code listener} on the main thread once the engine is initialized, or soon if it already is.
+     */
+    public void addOnInitializedListener(final OnInitializedListener listener) {
+        mScheduler.execute(new Runnable() {
+            @Override
+            public void run() {
+                final int status = getInitializationStatus();
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onInitialized(status);
+                    }
+                });
+            }
+        });
     }
 
-    public int destroy() {
-        return DHWR.Close();
+    private int getInitializationStatus() {
+        try {
+            return mInitialization.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return DHWR.ERR_INVALID_INSTANCE;
+        } catch (ExecutionException e) {
+            return DHWR.ERR_INVALID_INSTANCE;
+        }
+    }
+
+    /**
+     * Returns the time spent in each step of engine startup. Valid once initialized.
+     */
+    public StartupTimings getStartupTimings() {
+        return mStartupTimings;
+    }
+
+    public void destroy() {
+        cancelSpeculation();
+        mScheduler.execute(new Runnable() {
+            @Override
+            public void run() {
+                mScheduler.getEngine().destroy();
+            }
+        });
+        mScheduler.shutdown();
     }
 
     public void clearInk() {
-        mInk.Clear();
+        cancelSpeculation();
+        mStrokes.clear();
+        mInkRevision++;
+        mInkStale = false;
+        mScheduler.execute(new Runnable() {
+            @Override
+            public void run() {
+                mScheduler.getEngine().clearInk();
+            }
+        });
     }
 
-    public void addPoint(int x, int y) {
-        mInk.AddPoint(x, y);
+    public void addPoint(int x, int y, long time) {
+        if (!mStrokes.hasOpenStroke()) {
+            cancelSpeculation();
+        }
+        mStrokes.addPoint(x, y, time);
     }
 
     public void endStroke() {
-        mInk.EndStroke();
+        mStrokeFilter.apply(mStrokes);
+        if (!mStrokes.endStroke()) {
+            return;
+        }
+        mInkRevision++;
+        if (mInkStale) {
+            // Goes to the engine with the rest of the ink on the next recognition.
+            scheduleSpeculation();
+            return;
+        }
+        final int[] stroke = mStrokes.copyStroke(mStrokes.getStrokeCount() - 1);
+        mScheduler.execute(new Runnable() {
+            @Override
+            public void run() {
+                mScheduler.getEngine().addStroke(stroke, 0, stroke.length / 2);
+            }
+        });
+        scheduleSpeculation();
     }
 
-    public String recognize() {
-        int status = DHWR.Recognize(mInk, mResult);
-        String candidates = "";
-        if (status == DHWR.ERR_SUCCESS) {
-            candidates = getCandidates(mResult);
-        }
-        if (candidates.isEmpty()) {
-            candidates = "No result";
+    private void scheduleSpeculation() {
+        if (mAutoRecognitionEnabled && mStrokes.getStrokeCount() > 0) {
+            mHandler.postDelayed(mSpeculation, getAutoRecognitionDelay(mLanguage));
         }
-        return candidates;
     }
 
-    public void setLanguage(int language, int option) {
-        DHWR.ClearLanguage(mSetting.GetHandle());
-        DHWR.AddLanguage(mSetting.GetHandle(), language, option);
-        DHWR.SetAttribute(mSetting.GetHandle());
+    /**
+     * Returns a number that changes whenever a stroke is finished, undone, erased or cleared, so that
+     * a result can be matched to the ink it was recognized from. Read from the main thread.
+     */
+    public int getInkRevision() {
+        return mInkRevision;
     }
 
-    private String getCandidates(DHWR.Result result) {
-        StringBuilder candidates = new StringBuilder();
-        boolean exit = false;
-        int resultSize = result.size();
-        if (resultSize < 1) {
-            return "";
+    /**
+     * Removes the last stroke from the ink.
+     * @return false if there was no stroke
+     */
+    public boolean undoStroke() {
+        if (!mStrokes.removeLastStroke()) {
+            return false;
         }
+        rebuildInk();
+        return true;
+    }
 
-        for (int i = 0; i < MAX_CANDIDATES; i++) {
-            for (int j = 0; j < resultSize; j++) {
-                DHWR.Line line = result.get(j);
-                for (int k = 0; k < line.size(); k++) {
-                    DHWR.Block block = line.get(k);
-                    if (block.candidates.size() <= i) {
-                        exit = true;
-                        break;
-                    }
-                    // candidates.append(String.format(Locale.US, " [%d] ", i + 1));
-                    candidates.append(block.candidates.get(i));
-                    if (k + 1 < line.size()) {
-                        candidates.append(" ");
+    /**
+     * Removes the given strokes from the ink. Strokes are numbered in writing order, as in
+     * {@link RecognitionResult.Block#getStrokeIndex}.
+     * @return number of strokes removed
+     */
+    public int eraseStrokes(int[] strokes, int count) {
+        final int removed = mStrokes.removeStrokes(strokes, count);
+        if (removed > 0) {
+            rebuildInk();
+        }
+        return removed;
+    }
+
+    /**
+     * Removes every stroke of the recognized symbol that contains the last stroke. {@code result} must
+     * come from the current ink and carry stroke indices (see {@link #expandResultAsync}).
+     * @return number of strokes removed, 0 if no block of {@code result} holds the last stroke
+     */
+    public int eraseLastSymbol(RecognitionResult result) {
+        final int lastStroke = mStrokes.getStrokeCount() - 1;
+        for (int line = 0; line < result.getLineCount(); line++) {
+            for (int i = 0; i < result.getBlockCount(line); i++) {
+                RecognitionResult.Block block = result.getBlock(line, i);
+                for (int j = 0; j < block.getStrokeCount(); j++) {
+                    if (block.getStrokeIndex(j) == lastStroke) {
+                        int[] strokes = new int[block.getStrokeCount()];
+                        for (int k = 0; k < strokes.length; k++) {
+                            strokes[k] = block.getStrokeIndex(k);
+                        }
+                        return eraseStrokes(strokes, strokes.length);
                     }
                 }
-                if (exit) {
-                    break;
-                }
-                if (j + 1 < result.size()) {
-                    candidates.append("\n");
-                }
             }
-            if (exit) {
-                break;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the strokes of the ink as handed to the engine. Read from the main thread.
+     */
+    public StrokeBuffer getStrokes() {
+        return mStrokes;
+    }
+
+    /**
+     * Marks the engine's ink out of date after strokes were removed. Replaying the ink costs one JNI
+     * call per point, so it is left to {@link #syncInk} right before the next recognition instead of
+     * delaying the undo; several undos in a row then cost a single replay.
+     */
+    private void rebuildInk() {
+        cancelSpeculation();
+        mInkRevision++;
+        mInkStale = true;
+        scheduleSpeculation();
+    }
+
+    /**
+     * Replaces the engine's ink with a snapshot of the stroke store in one engine task if it is out
+     * of date. Queued ahead of the recognition that needs it.
+     */
+    private void syncInk() {
+        if (!mInkStale) {
+            return;
+        }
+        mInkStale = false;
+        final int strokeCount = mStrokes.getStrokeCount();
+        final int[] points = Arrays.copyOf(mStrokes.getPoints(), mStrokes.getPointCount() * 2);
+        final int[] strokeEnds = Arrays.copyOf(mStrokes.getStrokeEnds(), strokeCount);
+        mScheduler.execute(new Runnable() {
+            @Override
+            public void run() {
+                mScheduler.getEngine().setInk(points, strokeEnds, strokeCount);
+            }
+        });
+    }
+
+    private void cancelSpeculation() {
+        mHandler.removeCallbacks(mSpeculation);
+        mScheduler.cancelSpeculation();
+    }
+
+    /**
+     * Enables recognizing in the background once the pen has been idle for the language's delay,
+     * so that {@link #recognizeAsync} is answered from the precomputed result.
+     */
+    public void setAutoRecognitionEnabled(boolean enabled) {
+        mAutoRecognitionEnabled = enabled;
+        if (!enabled) {
+            cancelSpeculation();
+        }
+    }
+
+    public void setAutoRecognitionDelay(int language, long delayMillis) {
+        mAutoRecognitionDelays.put(language, delayMillis);
+    }
+
+    public long getAutoRecognitionDelay(int language) {
+        return mAutoRecognitionDelays.get(language, DEFAULT_AUTO_RECOGNITION_DELAY);
+    }
+
+    public void recognizeAsync(OnRecognizedListener listener) {
+        syncInk();
+        if (mRevision == null) {
+            // Not initialized yet: queued behind the initialization, and not cached without a revision.
+            mScheduler.recognize(listener);
+        } else {
+            mScheduler.recognize(fingerprint(), listener);
+        }
+    }
+
+    /**
+     * Reads more candidates, or the stroke indices, of {@code result} when they are needed, instead of
+     * reading them for every recognition (see {@link #setResultDepth}). {@code result} must have been
+     * recognized from the ink as it is now (see {@link #getInkRevision}).
+     */
+    public void expandResultAsync(RecognitionResult result, int candidates, boolean strokeIndices,
+                                  OnRecognizedListener listener) {
+        syncInk();
+        mScheduler.expand(result, candidates, strokeIndices, fingerprint(), listener);
+    }
+
+    /**
+     * Returns the cache key of the finished strokes. Only meaningful once the engine revision is known.
+     */
+    private long fingerprint() {
+        return RecognitionCache.fingerprint(mStrokes, mLanguage, mOption, mRevision);
+    }
+
+    /**
+     * Returns the filter applied to every finished stroke before it reaches the engine.
+     * Configure it from the main thread.
+     */
+    public StrokeFilter getStrokeFilter() {
+        return mStrokeFilter;
+    }
+
+    /**
+     * Limits how many candidates per block, and whether stroke indices, are read from the engine.
+     * Only the top candidate is read by default. Clears the cache.
+     */
+    public void setResultDepth(final int candidates, final boolean strokeIndices) {
+        mScheduler.execute(new Runnable() {
+            @Override
+            public void run() {
+                mScheduler.getEngine().setResultDepth(candidates, strokeIndices);
+                mScheduler.getCache().clear();
+            }
+        });
+    }
+
+    public RecognitionCache getCache() {
+        return mScheduler.getCache();
+    }
+
+    /**
+     * Returns the per-phase recognition latencies. The caller records the render phases.
+     */
+    public LatencyTracker getLatencyTracker() {
+        return mScheduler.getLatencyTracker();
+    }
+
+    /**
+     * Returns the executor every engine call runs on, with its queue wait and run times.
+     */
+    public EngineExecutor getEngineExecutor() {
+        return mScheduler.getEngineExecutor();
+    }
+
+    public void cancelRecognition() {
+        mScheduler.cancel();
+    }
+
+    public void setLanguage(final int language, final int option) {
+        mLanguage = language;
+        mOption = option;
+        mScheduler.execute(new Runnable() {
+            @Override
+            public void run() {
+                mScheduler.getEngine().setLanguage(language, option);
             }
-            candidates.append("\n");
+        });
+    }
+
+    /**
+     * Loads the model of a language in the background, behind any interactive work.
+     */
+    public void prepareLanguage(final int language, final int option) {
+        try {
+            mScheduler.execute(new Runnable() {
+                @Override
+                public void run() {
+                    mScheduler.getEngine().prepareLanguage(language, option);
+                }
+            }, EngineExecutor.PRIORITY_BACKGROUND);
+        } catch (RejectedExecutionException e) {
+            // setLanguage() loads the model itself when it was not prepared.
         }
-        return candidates.toString();
     }
 
+    /**
+     * Returns the engine revision, or {@code null} until the engine is initialized.
+     */
     public String getVersion() {
-        final int MAX_VERSION_LENGTH = 64;
-        char[] version = new char[MAX_VERSION_LENGTH];
-        DHWR.GetRevision(version);
-        return String.valueOf(version).trim();
+        return mRevision;
+    }
+
+    private static class MainThreadExecutor implements Executor {
+        private final Handler mHandler;
+
+        MainThreadExecutor(Handler handler) {
+            mHandler = handler;
+        }
+
+        @Override
+        public void execute(Runnable runnable) {
+            mHandler.post(runnable);
+        }
     }
 }
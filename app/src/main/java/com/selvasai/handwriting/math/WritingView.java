@@ -13,45 +13,91 @@ import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.View;
 
+import java.util.ArrayList;
+
 public class WritingView extends View {
 
+    /**
+     * Default. Strokes are drawn once into a full-view ARGB_8888 bitmap that is blitted every frame,
+     * so a frame costs the same however much ink there is, for 4 bytes per pixel of the view.
+     */
+    public final static int RENDER_MODE_BITMAP = 0;
+    /**
+     * Strokes are kept as paths and drawn by the (hardware-accelerated) view canvas; no bitmap.
+     * Saves the bitmap's memory, but every frame redraws every stroke, so frame time grows with the ink.
+     */
+    public final static int RENDER_MODE_VECTOR = 1;
+
+    // Extra pixels around the stroke width covered by anti-aliasing.
+    private final static float DIRTY_MARGIN = 2;
+    private final static float STROKE_WIDTH = 10;
+    // Rough native size of a path and of one quadratic segment (two points and a verb), for getSurfaceBytes().
+    private final static int PATH_OVERHEAD_BYTES = 256;
+    private final static int SEGMENT_BYTES = 17;
+    // Bitmap mode under hardware acceleration: segments of the stroke being written that are drawn as a
+    // path each frame before they go into the bitmap, trading per-frame path work for bitmap uploads.
+    private final static int LIVE_SEGMENT_LIMIT = 32;
+
     private WritingRecognizer mRecognizer = null;
-    private Paint mPaint = null;
+    private int mRenderMode = RENDER_MODE_BITMAP;
+    private final Paint mPaint = new Paint();
+    private final Paint mGuidePaint = new Paint();
     private Bitmap mBitmap = null;
     private Canvas mCanvas = null;
-    private Path mPath = null;
+    // Segments added since the last touch event; only these are drawn into the bitmap.
+    private final Path mPath = new Path();
+    // Vector mode: finished strokes.
+    private final ArrayList<Path> mStrokePaths = new ArrayList<Path>();
+    // Vector mode: the stroke being written. Bitmap mode under hardware acceleration: its segments not
+    // yet drawn into the bitmap, at most LIVE_SEGMENT_LIMIT of them.
+    private Path mStrokePath = null;
+    private int mLiveSegmentCount = 0;
+    private int mSegmentCount = 0;
     private float mX = 0;
     private float mY = 0;
+    private float mEndX = 0;
+    private float mEndY = 0;
+    private final RectF mDirtyBounds = new RectF();
+    private final Rect mDirtyRect = new Rect();
+    private final Rect mClipRect = new Rect();
     private int mWidth = 0;
     private int mHeight = 0;
 
     public WritingView(Context context) {
         super(context);
+        initPaint();
     }
 
     public WritingView(Context context, AttributeSet attrs) {
         super(context, attrs);
+        initPaint();
     }
 
     private void initialize(int width, int height) {
-        if (mBitmap == null) {
-            mBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        mWidth = width;
+        mHeight = height;
+        if (mBitmap != null) {
+            mBitmap.recycle();
+            mBitmap = null;
+            mCanvas = null;
         }
-        if (mCanvas == null) {
+        if (mRenderMode == RENDER_MODE_BITMAP && width > 0 && height > 0) {
+            mBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
             mCanvas = new Canvas(mBitmap);
         }
-        if (mPath == null) {
-            mPath = new Path();
-        }
-        if (mPaint == null) {
-            mPaint = new Paint();
-        }
 
-        clear();
+        // The recognizer keeps its ink across size and mode changes; keep showing it.
+        if (mRecognizer != null) {
+            setStrokes(mRecognizer.getStrokes());
+        } else {
+            clear();
+        }
     }
 
     private void initPaint() {
@@ -59,46 +105,136 @@ public class WritingView extends View {
         mPaint.setStyle(Paint.Style.STROKE);
         mPaint.setStrokeJoin(Paint.Join.ROUND);
         mPaint.setStrokeCap(Paint.Cap.ROUND);
-        mPaint.setStrokeWidth(10);
+        mPaint.setStrokeWidth(STROKE_WIDTH);
         mPaint.setColor(getResources().getColor(R.color.colorStroke));
+
+        mGuidePaint.setAntiAlias(true);
+        mGuidePaint.setColor(getResources().getColor(R.color.colorGuideText));
+        mGuidePaint.setStyle(Paint.Style.FILL);
+        mGuidePaint.setStrokeWidth(3);
+        mGuidePaint.setTextSize(20.0f * getResources().getDisplayMetrics().scaledDensity);
+        mGuidePaint.setTextAlign(Paint.Align.CENTER);
     }
 
-    private void drawGuideText() {
-        mPaint.setColor(getResources().getColor(R.color.colorGuideText));
-        mPaint.setStyle(Paint.Style.FILL);
-        mPaint.setStrokeWidth(3);
-        mPaint.setTextSize(20.0f * getResources().getDisplayMetrics().scaledDensity);
-        mPaint.setTextAlign(Paint.Align.CENTER);
-        mCanvas.drawText(getResources().getString(R.string.writeHere), mWidth / 2, mHeight / 2, mPaint);
+    private void drawBackground(Canvas canvas) {
+        canvas.drawColor(getResources().getColor(R.color.colorCanvas));
+        canvas.drawText(getResources().getString(R.string.writeHere), mWidth / 2, mHeight / 2, mGuidePaint);
     }
 
     public void setRecognizer(WritingRecognizer recognizer) {
         mRecognizer = recognizer;
     }
 
+    /**
+     * Switches between {@link #RENDER_MODE_BITMAP} and {@link #RENDER_MODE_VECTOR} and redraws the
+     * recognizer's strokes.
+     */
+    public void setRenderMode(int renderMode) {
+        if (renderMode != mRenderMode) {
+            mRenderMode = renderMode;
+            initialize(mWidth, mHeight);
+        }
+    }
+
+    public int getRenderMode() {
+        return mRenderMode;
+    }
+
+    /**
+     * Returns the memory held for the drawing: the bitmap in bitmap mode, an estimate of the native
+     * path storage in vector mode.
+     */
+    public long getSurfaceBytes() {
+        if (mBitmap != null) {
+            return mBitmap.getByteCount();
+        }
+        final int pathCount = mStrokePaths.size() + (mStrokePath != null ? 1 : 0);
+        return (long) pathCount * PATH_OVERHEAD_BYTES + (long) mSegmentCount * SEGMENT_BYTES;
+    }
+
+    /**
+     * Returns the size of the bitmap that bitmap mode needs for the current view size.
+     */
+    public long getBitmapSurfaceBytes() {
+        return 4L * mWidth * mHeight;
+    }
+
     public void clear() {
-        mPath.reset();
-        mCanvas.drawColor(getResources().getColor(R.color.colorCanvas));
-        drawGuideText();
-        initPaint();
+        mPath.rewind();
+        mStrokePaths.clear();
+        mStrokePath = null;
+        mSegmentCount = 0;
+        if (mCanvas != null) {
+            drawBackground(mCanvas);
+        }
         invalidate();
     }
 
-    @Override
-    protected void onDraw(Canvas canvas) {
-        if (mBitmap != null) {
-            canvas.drawBitmap(mBitmap, 0, 0, mPaint);
+    /**
+     * Redraws the view from {@code strokes}, e.g. after strokes were undone or erased.
+     * The stroke being written, if any, is dropped.
+     */
+    public void setStrokes(StrokeBuffer strokes) {
+        clear();
+        final int strokeCount = strokes.getStrokeCount();
+        for (int stroke = 0; stroke < strokeCount; stroke++) {
+            Path path = mRenderMode == RENDER_MODE_VECTOR ? new Path() : mPath;
+            path.rewind();
+            appendStroke(path, strokes, stroke);
+            if (mRenderMode == RENDER_MODE_VECTOR) {
+                mStrokePaths.add(path);
+            } else if (mCanvas != null) {
+                mCanvas.drawPath(path, mPaint);
+            }
+        }
+        mPath.rewind();
+    }
+
+    /**
+     * Appends one stored stroke to {@code path} with the same smoothing as live drawing.
+     */
+    private void appendStroke(Path path, StrokeBuffer strokes, int stroke) {
+        final int start = strokes.getStrokeStart(stroke);
+        final int end = strokes.getStrokeEnd(stroke);
+        float x = strokes.getX(start);
+        float y = strokes.getY(start);
+        path.addCircle(x, y, 1, Path.Direction.CW);
+        path.moveTo(x, y);
+        for (int i = start + 1; i < end; i++) {
+            final float nextX = strokes.getX(i);
+            final float nextY = strokes.getY(i);
+            path.quadTo(x, y, (nextX + x) / 2, (nextY + y) / 2);
+            x = nextX;
+            y = nextY;
         }
+        path.lineTo(x, y);
+        mSegmentCount += end - start;
     }
 
     @Override
-    public void onWindowFocusChanged(boolean hasWindowFocus) {
-        super.onWindowFocusChanged(hasWindowFocus);
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+        initialize(width, height);
+    }
 
-        View v = findViewById(R.id.canvas);
-        mWidth = v.getWidth();
-        mHeight = v.getHeight();
-        initialize(mWidth, mHeight);
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (mBitmap != null) {
+            // With software rendering the clip is the invalidated region; copy just that part of the bitmap.
+            if (!canvas.isHardwareAccelerated() && canvas.getClipBounds(mClipRect)) {
+                canvas.drawBitmap(mBitmap, mClipRect, mClipRect, null);
+            } else {
+                canvas.drawBitmap(mBitmap, 0, 0, null);
+            }
+        } else if (mRenderMode == RENDER_MODE_VECTOR) {
+            drawBackground(canvas);
+            for (int i = 0; i < mStrokePaths.size(); i++) {
+                canvas.drawPath(mStrokePaths.get(i), mPaint);
+            }
+        }
+        if (mStrokePath != null) {
+            canvas.drawPath(mStrokePath, mPaint);
+        }
     }
 
     @Override
@@ -108,12 +244,10 @@ public class WritingView extends View {
 
         switch (event.getAction()) {
             case MotionEvent.ACTION_DOWN:
-                handleTouchDown(x, y);
-                invalidate();
+                handleTouchDown(x, y, event.getEventTime());
                 break;
             case MotionEvent.ACTION_MOVE:
-                handleTouchMove(x, y);
-                invalidate();
+                handleTouchMove(event);
                 break;
             case MotionEvent.ACTION_UP:
                 handleTouchUp();
@@ -122,27 +256,80 @@ public class WritingView extends View {
         return true;
     }
 
-    private void handleTouchDown(float x, float y) {
+    private void handleTouchDown(float x, float y, long time) {
         if (mRecognizer != null) {
-            mRecognizer.addPoint((int) x, (int) y);
+            mRecognizer.addPoint((int) x, (int) y, time);
         }
 
-        mPath.reset();
-        mPath.moveTo(x, y);
-        mCanvas.drawCircle(x, y, 1, mPaint);
+        // A hardware-accelerated canvas uploads the whole bitmap again whenever its pixels change, so
+        // there the newest segments are drawn as a path and go into the bitmap in groups.
+        if (mRenderMode == RENDER_MODE_VECTOR || isHardwareAccelerated()) {
+            mStrokePath = new Path();
+            mLiveSegmentCount = 0;
+            mStrokePath.addCircle(x, y, 1, Path.Direction.CW);
+            mStrokePath.moveTo(x, y);
+        } else if (mCanvas != null) {
+            mCanvas.drawCircle(x, y, 1, mPaint);
+        }
         mX = x;
         mY = y;
+        mEndX = x;
+        mEndY = y;
+        mDirtyBounds.set(x, y, x, y);
+        invalidateDirty();
     }
 
-    private void handleTouchMove(float x, float y) {
+    private void handleTouchMove(MotionEvent event) {
+        // Android batches the samples received since the last frame into one ACTION_MOVE.
+        mDirtyBounds.set(mEndX, mEndY, mEndX, mEndY);
+        mPath.rewind();
+        mPath.moveTo(mEndX, mEndY);
+        final int historySize = event.getHistorySize();
+        for (int i = 0; i < historySize; i++) {
+            appendPoint(event.getHistoricalX(i), event.getHistoricalY(i), event.getHistoricalEventTime(i));
+        }
+        appendPoint(event.getX(), event.getY(), event.getEventTime());
+        if (mStrokePath == null) {
+            if (mCanvas != null) {
+                mCanvas.drawPath(mPath, mPaint);
+            }
+        } else if (mRenderMode == RENDER_MODE_BITMAP && mLiveSegmentCount >= LIVE_SEGMENT_LIMIT) {
+            commitLiveSegments();
+        }
+        invalidateDirty();
+    }
+
+    /**
+     * Draws the live segments into the bitmap and starts a new live path where they end, so the path
+     * drawn every frame stays short however long the stroke grows.
+     */
+    private void commitLiveSegments() {
+        if (mCanvas != null) {
+            mCanvas.drawPath(mStrokePath, mPaint);
+        }
+        mStrokePath.rewind();
+        mStrokePath.moveTo(mEndX, mEndY);
+        mLiveSegmentCount = 0;
+    }
+
+    private void appendPoint(float x, float y, long time) {
         if (mRecognizer != null) {
-            mRecognizer.addPoint((int) x, (int) y);
+            mRecognizer.addPoint((int) x, (int) y, time);
         }
 
-        mPath.quadTo(mX, mY, (x + mX) / 2, (y + mY) / 2);
+        mEndX = (x + mX) / 2;
+        mEndY = (y + mY) / 2;
+        mPath.quadTo(mX, mY, mEndX, mEndY);
+        if (mStrokePath != null) {
+            mStrokePath.quadTo(mX, mY, mEndX, mEndY);
+            mLiveSegmentCount++;
+            mSegmentCount++;
+        }
+        // A quadratic segment stays inside the triangle of its end points and control point.
+        mDirtyBounds.union(mX, mY);
+        mDirtyBounds.union(mEndX, mEndY);
         mX = x;
         mY = y;
-        mCanvas.drawPath(mPath, mPaint);
     }
 
     private void handleTouchUp() {
@@ -150,7 +337,39 @@ public class WritingView extends View {
             mRecognizer.endStroke();
         }
 
+        mPath.rewind();
+        mPath.moveTo(mEndX, mEndY);
         mPath.lineTo(mX, mY);
-        mCanvas.drawPath(mPath, mPaint);
+        if (mStrokePath != null) {
+            mStrokePath.lineTo(mX, mY);
+            mSegmentCount++;
+            if (mRenderMode == RENDER_MODE_VECTOR) {
+                mStrokePaths.add(mStrokePath);
+            } else if (mCanvas != null) {
+                mCanvas.drawPath(mStrokePath, mPaint);
+            }
+            mStrokePath = null;
+        } else if (mCanvas != null) {
+            mCanvas.drawPath(mPath, mPaint);
+        }
+        mDirtyBounds.set(mEndX, mEndY, mEndX, mEndY);
+        mDirtyBounds.union(mX, mY);
+        invalidateDirty();
+    }
+
+    /**
+     * With software rendering, invalidates only the area of the segments drawn since the last frame,
+     * widened by the stroke. A hardware-accelerated view ignores the rectangle and is redrawn whole
+     * (invalidate(Rect) is deprecated from API 28), so there the whole view is invalidated.
+     */
+    private void invalidateDirty() {
+        if (isHardwareAccelerated()) {
+            invalidate();
+            return;
+        }
+        final float outset = -(mPaint.getStrokeWidth() / 2 + DIRTY_MARGIN);
+        mDirtyBounds.inset(outset, outset);
+        mDirtyBounds.roundOut(mDirtyRect);
+        invalidate(mDirtyRect);
     }
 }
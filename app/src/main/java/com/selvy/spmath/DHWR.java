@@ -56,14 +56,26 @@
 package com.selvy.spmath;
 
 import android.util.Log;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 public class DHWR {
+    private final static long sLibraryLoadNanos;
+
     static {
+        final long start = System.nanoTime();
         System.loadLibrary("stlport_shared");
         System.loadLibrary("spmath-base");
         System.loadLibrary("spmath-core");
         System.loadLibrary("spmath");
+        sLibraryLoadNanos = System.nanoTime() - start;
     }
 
     public final static String TAG = "SELVASAI";
@@ -71,6 +83,9 @@ public class DHWR {
 
     public final static int MAX_CANDIDATES = 10;
 
+    private final static int LOG_LEVEL_UNKNOWN = -1;
+    private static volatile int sLogLevel = LOG_LEVEL_UNKNOWN;
+
     /**
      * @defgroup  PublicStaticAttributes Public Static Attributes
      * @brief     API 사용 시 파리미터나 리턴값으로 사용 가능한 상수값들이 정의되어 있다.
@@ -207,111 +222,591 @@ public class DHWR {
         public int y = 0;
     }
 
-    public static class Ink {
+    // --------- Native Handle Lifecycle ---------//
+    /*!
+     *  @brief GetLiveHandleCount(), GetLeakedHandleCount()에 넘기는 native 오브젝트 종류
+     */
+    /*@{*/
+    //! 잉크 오브젝트
+    public final static int HANDLE_INK = 0;
+    //! 설정 오브젝트
+    public final static int HANDLE_SETTING = 1;
+    //! 결과 오브젝트
+    public final static int HANDLE_RESULT = 2;
+    /*@}*/
+    private final static int HANDLE_TYPE_COUNT = 3;
+    private final static int MAX_POOLED_INKS = 4;
+
+    private final static AtomicIntegerArray sLiveHandles = new AtomicIntegerArray(HANDLE_TYPE_COUNT);
+    private final static AtomicIntegerArray sLeakedHandles = new AtomicIntegerArray(HANDLE_TYPE_COUNT);
+    private final static ReferenceQueue<Object> sUnreachableQueue = new ReferenceQueue<Object>();
+    private final static Set<NativeHandle> sHandles = Collections.synchronizedSet(new HashSet<NativeHandle>());
+    private final static ArrayList<Ink> sInkPool = new ArrayList<Ink>();
+
+    /*!
+     *  @brief native 오브젝트 하나의 소유권. 소유 객체가 close() 없이 GC되면 ReleaseUnreachableHandles()에서 대신 소멸시킨다.
+     *  @details finalize()와 달리 소유 객체를 되살리지 않으며, 소멸은 새 오브젝트를 만드는 스레드(엔진 스레드)에서 일어난다.
+     */
+    private static class NativeHandle extends PhantomReference<Object> {
+        private final int mType;
+        private final long mHandle;
+
+        NativeHandle(Object owner, int type, long handle) {
+            super(owner, sUnreachableQueue);
+            mType = type;
+            mHandle = handle;
+            sHandles.add(this);
+            sLiveHandles.incrementAndGet(type);
+        }
+
+        void Release() {
+            if (!sHandles.remove(this)) {
+                return;
+            }
+            clear();
+            sLiveHandles.decrementAndGet(mType);
+            switch (mType) {
+                case HANDLE_INK:
+                    DHWR.DestroyInkObject(mHandle);
+                    break;
+                case HANDLE_SETTING:
+                    DHWR.DestroySettingObject(mHandle);
+                    break;
+                default:
+                    DHWR.DestroyResultObject(mHandle);
+                    break;
+            }
+        }
+    }
+
+    private static NativeHandle Track(Object owner, int type, long handle) {
+        ReleaseUnreachableHandles();
+        return new NativeHandle(owner, type, handle);
+    }
+
+    /*!
+     *  @brief close()되지 않은 채 GC된 Ink, Setting, Result, ResultView의 native 오브젝트를 소멸시킨다.\n
+     *         새 오브젝트를 만들 때마다 호출되므로 직접 호출할 필요는 없다.
+     *  @return 소멸시킨 오브젝트 개수
+     */
+    public static int ReleaseUnreachableHandles() {
+        int count = 0;
+        NativeHandle handle;
+        while ((handle = (NativeHandle) sUnreachableQueue.poll()) != null) {
+            sLeakedHandles.incrementAndGet(handle.mType);
+            handle.Release();
+            count++;
+        }
+        return count;
+    }
+
+    /*!
+     *  @brief 소멸되지 않은 native 오브젝트 개수. 긴 세션에서 계속 늘어나면 close() 누락이다.
+     *  @param [in] type HANDLE_INK, HANDLE_SETTING, HANDLE_RESULT
+     */
+    public static int GetLiveHandleCount(int type) {
+        return sLiveHandles.get(type);
+    }
+
+    /*!
+     *  @brief close()되지 않고 GC되어 ReleaseUnreachableHandles()가 소멸시킨 native 오브젝트 개수
+     *  @param [in] type HANDLE_INK, HANDLE_SETTING, HANDLE_RESULT
+     */
+    public static int GetLeakedHandleCount(int type) {
+        return sLeakedHandles.get(type);
+    }
+
+    /*!
+     *  @brief 재사용 pool에서 비어 있는 Ink를 꺼낸다. pool이 비어 있으면 새로 만든다.
+     *  @see Ink#Recycle()
+     */
+    public static Ink ObtainInk() {
+        synchronized (sInkPool) {
+            if (!sInkPool.isEmpty()) {
+                return sInkPool.remove(sInkPool.size() - 1);
+            }
+        }
+        return new Ink();
+    }
+
+    /*!
+     *  @brief pool에 남은 Ink를 모두 소멸시킨다. Close() 전에 호출한다.
+     */
+    public static void ClearInkPool() {
+        synchronized (sInkPool) {
+            for (Ink ink : sInkPool) {
+                ink.close();
+            }
+            sInkPool.clear();
+        }
+    }
+
+    /*!
+     *  @brief 잉크 오브젝트. native 잉크와 함께 좌표와 획 경계를 Java 쪽에도 기록하므로,
+     *         Export()로 전체 잉크를 JNI 호출 없이 한 번에 가져올 수 있다.
+     */
+    public static class Ink implements AutoCloseable {
+        private final static int INITIAL_POINTS = 256;
+        private final static int INITIAL_STROKES = 16;
+
         public Ink() {
-            mId = CreateInkObject();
+            this(CreateInkObject(), false);
         }
 
+        /*!
+         *  @brief 이미 만들어진 잉크 오브젝트를 감싼다. 들어 있던 좌표는 GetInkPoint()로 한 번 읽어 오며,
+         *         그 좌표들의 획 경계는 알 수 없으므로 다음 EndStroke()까지 하나의 획으로 취급한다.
+         */
         public Ink(long id) {
-            mId = id;
+            this(id, true);
         }
 
-        @Override
-        protected void finalize() throws Throwable {
-            DHWR.DestroyInkObject(mId);
-            super.finalize();
+        private Ink(long id, boolean existing) {
+            mId = id;
+            mNativeHandle = Track(this, HANDLE_INK, id);
+            if (existing) {
+                Point point = new Point();
+                final int size = DHWR.GetInkCount(id);
+                for (int i = 0; i < size && DHWR.GetInkPoint(id, i, point); i++) {
+                    RecordPoint(point.x, point.y);
+                }
+            }
         }
 
         public boolean AddPoint(int x, int y) {
-            return DHWR.AddPoint(mId, x, y);
+            final boolean added = DHWR.AddPoint(CheckOpen(), x, y);
+            if (added) {
+                RecordPoint(x, y);
+            }
+            return added;
         }
 
         public boolean EndStroke() {
-            return DHWR.EndStroke(mId);
+            final boolean ended = DHWR.EndStroke(CheckOpen());
+            if (ended && mPointCount > (mStrokeCount == 0 ? 0 : mStrokeEnds[mStrokeCount - 1])) {
+                if (mStrokeCount == mStrokeEnds.length) {
+                    mStrokeEnds = Arrays.copyOf(mStrokeEnds, mStrokeCount * 2);
+                }
+                mStrokeEnds[mStrokeCount++] = mPointCount;
+            }
+            return ended;
         }
 
         public void Clear() {
-            DHWR.InkClear(mId);
+            DHWR.InkClear(CheckOpen());
+            mPointCount = 0;
+            mStrokeCount = 0;
         }
 
         public boolean GetPoint(int index, Point point) {
-            return DHWR.GetInkPoint(mId, index, point);
+            return DHWR.GetInkPoint(CheckOpen(), index, point);
         }
 
         public int GetSize() {
-            return DHWR.GetInkCount(mId);
+            return DHWR.GetInkCount(CheckOpen());
+        }
+
+        /*!
+         *  @brief EndStroke()로 끝난 획의 개수. 끝나지 않은 획은 포함하지 않는다.
+         */
+        public int GetStrokeCount() {
+            CheckOpen();
+            return mStrokeCount;
+        }
+
+        /*!
+         *  @brief 잉크의 모든 좌표와 획 경계를 호출자의 배열에 한 번에 복사한다. JNI 호출이 없다.
+         *  @param [out] points x0, y0, x1, y1, ... 순서의 좌표. GetSize() * 2 이상의 길이여야 한다.
+         *  @param [out] strokeEnds 각 획의 마지막 좌표 다음 index. GetStrokeCount() 이상의 길이여야 한다. null이면 좌표만 복사한다.
+         *  @return 복사한 좌표 개수
+         */
+        public int Export(int[] points, int[] strokeEnds) {
+            CheckOpen();
+            System.arraycopy(mPoints, 0, points, 0, mPointCount * 2);
+            if (strokeEnds != null) {
+                System.arraycopy(mStrokeEnds, 0, strokeEnds, 0, mStrokeCount);
+            }
+            return mPointCount;
+        }
+
+        /*!
+         *  @brief Export(int[], int[])와 같으며, direct buffer 등 IntBuffer의 현재 position부터 쓴다.
+         *  @return 복사한 좌표 개수
+         *  @exception java.nio.BufferOverflowException 남은 공간이 부족한 경우
+         */
+        public int Export(IntBuffer points, IntBuffer strokeEnds) {
+            CheckOpen();
+            points.put(mPoints, 0, mPointCount * 2);
+            if (strokeEnds != null) {
+                strokeEnds.put(mStrokeEnds, 0, mStrokeCount);
+            }
+            return mPointCount;
+        }
+
+        private void RecordPoint(int x, int y) {
+            if (mPointCount * 2 == mPoints.length) {
+                mPoints = Arrays.copyOf(mPoints, mPoints.length * 2);
+            }
+            mPoints[mPointCount * 2] = x;
+            mPoints[mPointCount * 2 + 1] = y;
+            mPointCount++;
         }
 
         public long GetHandle() {
             return mId;
         }
+
+        public boolean IsClosed() {
+            return mId == 0;
+        }
+
+        /*!
+         *  @brief 잉크를 비우고 ObtainInk()가 다시 쓸 수 있도록 pool에 돌려준다. pool이 가득 차 있으면 소멸시킨다.
+         *         이후에는 이 객체를 사용할 수 없다.
+         */
+        public void Recycle() {
+            if (mId == 0) {
+                return;
+            }
+            Clear();
+            synchronized (sInkPool) {
+                if (sInkPool.size() < MAX_POOLED_INKS && !sInkPool.contains(this)) {
+                    sInkPool.add(this);
+                    return;
+                }
+            }
+            close();
+        }
+
+        /*!
+         *  @brief 잉크 오브젝트를 소멸시킨다. 이후에는 이 객체를 사용할 수 없다.
+         */
+        @Override
+        public void close() {
+            if (mId != 0) {
+                mId = 0;
+                mNativeHandle.Release();
+            }
+        }
+
+        private long CheckOpen() {
+            if (mId == 0) {
+                throw new IllegalStateException("Ink is closed");
+            }
+            return mId;
+        }
+
         private long mId;
+        private final NativeHandle mNativeHandle;
+        private int[] mPoints = new int[INITIAL_POINTS * 2];
+        private int mPointCount = 0;
+        private int[] mStrokeEnds = new int[INITIAL_STROKES];
+        private int mStrokeCount = 0;
     }
 
     // --------- Setting Inner Class ---------//
-    public static class Setting {
+    public static class Setting implements AutoCloseable {
         public Setting() {
             mId = CreateSettingObject();
-        }
-
-        @Override
-        protected void finalize() throws Throwable {
-            DHWR.DestroySettingObject(mId);
-            super.finalize();
+            mNativeHandle = Track(this, HANDLE_SETTING, mId);
         }
 
         public int SetMode(int mode) {
-            return DHWR.SetRecognitionMode(mId, mode);
+            return DHWR.SetRecognitionMode(CheckOpen(), mode);
         }
 
         public int SetCandidateSize(int size) {
-            return DHWR.SetCandidateSize(mId, size);
+            return DHWR.SetCandidateSize(CheckOpen(), size);
         }
 
         public int AddLanguage(int lang, int option) {
-            return DHWR.AddLanguage(mId, lang, option);
+            return DHWR.AddLanguage(CheckOpen(), lang, option);
         }
 
         public int GetLanguageSize() {
-            return DHWR.GetLanguageSize(mId);
+            return DHWR.GetLanguageSize(CheckOpen());
         }
 
         public int ClearLanguage() {
-            return DHWR.ClearLanguage(mId);
+            return DHWR.ClearLanguage(CheckOpen());
         }
 
         public int SetUserCharSet(char[] charset) {
-            return DHWR.SetUserCharSet(mId, charset);
+            return DHWR.SetUserCharSet(CheckOpen(), charset);
         }
 
         public long GetHandle() {
             return mId;
         }
 
+        public boolean IsClosed() {
+            return mId == 0;
+        }
+
+        /*!
+         *  @brief 설정 오브젝트를 소멸시킨다. 이후에는 이 객체를 사용할 수 없다.
+         */
+        @Override
+        public void close() {
+            if (mId != 0) {
+                mId = 0;
+                mNativeHandle.Release();
+            }
+        }
+
+        private long CheckOpen() {
+            if (mId == 0) {
+                throw new IllegalStateException("Setting is closed");
+            }
+            return mId;
+        }
+
         private long mId;
+        private final NativeHandle mNativeHandle;
     }
 
     // --------- Result Inner Class ---------//
     public static class BlockInfo {
+        //! 유효한 획 index 개수. stroke_indices는 재사용되므로 배열 길이가 더 길 수 있다.
         public int stroke_count;
         public int[] stroke_indices;
     }
 
     public static class Block {
         public ArrayList<String> candidates = new ArrayList<String>();
-        public BlockInfo info;
+        public BlockInfo info = new BlockInfo();
     }
 
     public static class Line extends ArrayList<Block> {
         private static final long serialVersionUID = -3254237493961808528L;
+
+        private transient ArrayList<Block> mRecycled = new ArrayList<Block>();
+
+        Block obtainBlock() {
+            Block block = mRecycled.isEmpty() ? new Block() : mRecycled.remove(mRecycled.size() - 1);
+            block.candidates.clear();
+            return block;
+        }
+
+        void recycleBlock(Block block) {
+            mRecycled.add(block);
+        }
+
+        void recycle() {
+            for (int i = 0; i < size(); i++) {
+                mRecycled.add(get(i));
+            }
+            clear();
+        }
     }
 
-    public static class Result extends ArrayList<Line> {
+    /*!
+     *  @brief 인식 결과. Recognize()에 같은 객체를 반복해서 넘기면 결과 오브젝트 handle과
+     *         Line, Block, stroke index 배열을 재사용하므로, 후보 문자열 외에는 새로 할당하지 않는다.
+     */
+    public static class Result extends ArrayList<Line> implements AutoCloseable {
         private static final long serialVersionUID = -318179353348774962L;
+
+        private transient ArrayList<Line> mRecycled = new ArrayList<Line>();
+        private transient long mHandle = 0;
+        private transient NativeHandle mNativeHandle = null;
+        private transient long mRecognizeNanos = 0;
+
+        /*!
+         *  @brief 결과 오브젝트를 소멸시킨다. 복사된 후보는 그대로 남으며, 다시 Recognize()에 넘기면 새로 만든다.
+         */
+        @Override
+        public void close() {
+            if (mHandle != 0) {
+                mHandle = 0;
+                mNativeHandle.Release();
+                mNativeHandle = null;
+            }
+        }
+
+        /*!
+         *  @brief 마지막 Recognize() 호출에서 RecognizeWithContext()가 걸린 시간
+         *  @return nano seconds
+         */
+        public long GetRecognizeNanos() {
+            return mRecognizeNanos;
+        }
+
+        long obtainHandle() {
+            if (mHandle == 0) {
+                mHandle = DHWR.CreateResultObject();
+                mNativeHandle = Track(this, HANDLE_RESULT, mHandle);
+            }
+            return mHandle;
+        }
+
+        Line obtainLine() {
+            return mRecycled.isEmpty() ? new Line() : mRecycled.remove(mRecycled.size() - 1);
+        }
+
+        void recycleLine(Line line) {
+            mRecycled.add(line);
+        }
+
+        void recycle() {
+            for (int i = 0; i < size(); i++) {
+                Line line = get(i);
+                line.recycle();
+                mRecycled.add(line);
+            }
+            clear();
+        }
+    }
+
+    /*!
+     *  @brief 결과 오브젝트를 유지한 채로 필요한 라인, 블럭, 후보, 획 index만 요청 시점에 가져오는 결과 view.\n
+     *         Result와 달리 Recognize() 시점에 후보를 모두 복사하지 않으므로, 1순위 후보만 사용할 때 JNI 호출과 문자열 생성이 줄어든다.
+     *  @details 라인, 블럭 handle은 다음 Recognize() 호출 전까지만 유효하며, 그때까지 캐시된다.
+     *           생성한 스레드에서만 사용해야 하고, 사용이 끝나면 Close()를 호출하여 결과 오브젝트를 소멸시켜야 한다.
+     */
+    public static class ResultView implements AutoCloseable {
+        private long mHandle;
+        private final NativeHandle mNativeHandle;
+        private long mRecognizeNanos = 0;
+        private int mLineSize = -1;
+        private long[] mLines = new long[0];
+        private int[] mBlockSizes = new int[0];
+        private long[][] mBlocks = new long[0][];
+
+        public ResultView() {
+            mHandle = CreateResultObject();
+            mNativeHandle = Track(this, HANDLE_RESULT, mHandle);
+        }
+
+        int Recognize(Ink ink) {
+            CheckOpen();
+            mLineSize = -1;
+            final long start = System.nanoTime();
+            int ret = DHWR.RecognizeWithContext(ink.GetHandle(), mHandle);
+            mRecognizeNanos = System.nanoTime() - start;
+            return ret;
+        }
+
+        /*!
+         *  @brief 마지막 Recognize() 호출에서 RecognizeWithContext()가 걸린 시간
+         *  @return nano seconds
+         */
+        public long GetRecognizeNanos() {
+            return mRecognizeNanos;
+        }
+
+        public int GetLineSize() {
+            CheckOpen();
+            if (mLineSize < 0) {
+                mLineSize = DHWR.GetLineSize(mHandle);
+                if (mLines.length < mLineSize) {
+                    mLines = new long[mLineSize];
+                    mBlockSizes = new int[mLineSize];
+                    mBlocks = Arrays.copyOf(mBlocks, mLineSize);
+                }
+                Arrays.fill(mLines, 0, mLineSize, 0);
+                Arrays.fill(mBlockSizes, 0, mLineSize, -1);
+            }
+            return mLineSize;
+        }
+
+        public int GetBlockSize(int line) {
+            if (mBlockSizes[CheckLine(line)] < 0) {
+                int size = DHWR.GetBlockSize(GetLineHandle(line));
+                if (mBlocks[line] == null || mBlocks[line].length < size) {
+                    mBlocks[line] = new long[size];
+                } else {
+                    Arrays.fill(mBlocks[line], 0, size, 0);
+                }
+                mBlockSizes[line] = size;
+            }
+            return mBlockSizes[line];
+        }
+
+        public int GetCandidateSize(int line, int block) {
+            return DHWR.GetCandidateSize(GetBlockHandle(line, block));
+        }
+
+        public String GetCandidate(int line, int block, int rank) {
+            return DHWR.GetCandidate(GetBlockHandle(line, block), rank);
+        }
+
+        public int GetStrokeSize(int line, int block) {
+            return DHWR.GetStrokeSize(GetBlockHandle(line, block));
+        }
+
+        /*!
+         *  @brief 블럭을 구성하는 획 index를 가져온다
+         *  @param [out] indices 획 index가 저장될 배열. GetStrokeSize() 이상의 길이여야 한다.
+         *  @return 저장된 획 index 개수
+         */
+        public int GetStrokeIndices(int line, int block, int[] indices) {
+            long handle = GetBlockHandle(line, block);
+            int size = DHWR.GetStrokeSize(handle);
+            DHWR.GetStrokeIndices(handle, indices, size);
+            return size;
+        }
+
+        public boolean IsClosed() {
+            return mHandle == 0;
+        }
+
+        /*!
+         *  @brief 결과 오브젝트를 소멸시킨다. 이후에는 view를 사용할 수 없다.
+         */
+        public void Close() {
+            if (mHandle != 0) {
+                mHandle = 0;
+                mNativeHandle.Release();
+            }
+        }
+
+        @Override
+        public void close() {
+            Close();
+        }
+
+        private long GetLineHandle(int line) {
+            if (mLines[CheckLine(line)] == 0) {
+                mLines[line] = DHWR.GetLine(mHandle, line);
+            }
+            return mLines[line];
+        }
+
+        private long GetBlockHandle(int line, int block) {
+            if (block < 0 || block >= GetBlockSize(line)) {
+                throw new IndexOutOfBoundsException("block " + block + " of " + mBlockSizes[line]);
+            }
+            if (mBlocks[line][block] == 0) {
+                mBlocks[line][block] = DHWR.GetBlock(GetLineHandle(line), block);
+            }
+            return mBlocks[line][block];
+        }
+
+        private int CheckLine(int line) {
+            if (line < 0 || line >= GetLineSize()) {
+                throw new IndexOutOfBoundsException("line " + line + " of " + mLineSize);
+            }
+            return line;
+        }
+
+        private void CheckOpen() {
+            if (mHandle == 0) {
+                throw new IllegalStateException("ResultView is closed");
+            }
+        }
     }
 
     public DHWR() {}
 
+    /*!
+     *  @brief 클래스 초기화 시 native library를 load하는 데 걸린 시간. 호출 시점에 아직 load되지 않았다면 먼저 load한다.
+     *  @return nano seconds
+     */
+    public static long GetLibraryLoadNanos() {
+        return sLibraryLoadNanos;
+    }
+
     /***************************************************************
      * Main Raw APIs
      ***************************************************************/
@@ -353,55 +848,67 @@ public class DHWR {
      *  @see InkObject, ResultObject
      */
     public final static int Recognize(Ink ink, Result result) {
-        result.clear();
-        long handle_result = DHWR.CreateResultObject();
+        final boolean debug = IsLogEnabled(DHWR.LEVEL_DEBUG);
+        result.recycle();
+        long handle_result = result.obtainHandle();
+        final long start = System.nanoTime();
         int ret = DHWR.RecognizeWithContext(ink.GetHandle(), handle_result);
+        result.mRecognizeNanos = System.nanoTime() - start;
         long size_line = DHWR.GetLineSize(handle_result);
         for (int i = 0; i < size_line; i++) {
-            Line line = new Line();
+            Line line = result.obtainLine();
             long handle_line = DHWR.GetLine(handle_result, i);
             int size_block = DHWR.GetBlockSize(handle_line);
             for (int j = 0; j < size_block; j++) {
-                Block block = new Block();
+                Block block = line.obtainBlock();
                 long handle_block = DHWR.GetBlock(handle_line, j);
-                BlockInfo info = new BlockInfo();
+                BlockInfo info = block.info;
                 int size_stroke = DHWR.GetStrokeSize(handle_block);
                 info.stroke_count = size_stroke;
-                info.stroke_indices = new int[size_stroke];
+                if (info.stroke_indices == null || info.stroke_indices.length < size_stroke) {
+                    info.stroke_indices = new int[size_stroke];
+                }
                 DHWR.GetStrokeIndices(handle_block, info.stroke_indices, size_stroke);
-                block.info = info;
-                PrintLog(DHWR.LEVEL_DEBUG, TAG, "DHWR.java Stroke count : " + info.stroke_count);
-                for (int k = 0; k < size_stroke; k++) {
-                    PrintLog(DHWR.LEVEL_DEBUG, TAG, "DHWR.java Stroke ["+k+"] : " + info.stroke_indices[k]);
+                if (debug) {
+                    PrintLog(DHWR.LEVEL_DEBUG, TAG, "DHWR.java Stroke count : " + info.stroke_count);
+                    for (int k = 0; k < size_stroke; k++) {
+                        PrintLog(DHWR.LEVEL_DEBUG, TAG, "DHWR.java Stroke ["+k+"] : " + info.stroke_indices[k]);
+                    }
                 }
 
                 int size_candidates = DHWR.GetCandidateSize(handle_block);
                 for (int k = 0; k < size_candidates; k++) {
                     String text = DHWR.GetCandidate(handle_block, k);
-                    String strHex = "";
-                    char a;
-                    for (int l = 0; l < text.length(); l++) {
-                        a = text.charAt(l);
-                        strHex += "0x"+Integer.toHexString((int) (a & 0xFFFF));
-                        if (l != text.length() - 1)
-                            strHex += " ";
+                    if (debug) {
+                        PrintLog(DHWR.LEVEL_DEBUG, TAG, "DHWR.java [" + i + "," + j + "," + k + "]: \"" + text + "(" + ToHexString(text) + ")\"");
                     }
-                    String stLog = text + "(" + strHex + ")";
-
-                    PrintLog(DHWR.LEVEL_DEBUG, TAG, "DHWR.java [" + i + "," + j + "," + k + "]: \"" + stLog + "\"");
                     block.candidates.add(text);
                 }
                 if (block.candidates.isEmpty() == false) {
                     line.add(block);
+                } else {
+                    line.recycleBlock(block);
                 }
             }
             if (line.isEmpty() == false) {
                 result.add(line);
+            } else {
+                result.recycleLine(line);
             }
         }
-        DHWR.DestroyResultObject(handle_result);
         return ret;
     }
+
+    /*!
+     *  @brief 인식모드 속성 값에 따라 입력 데이터를 인식하고, 결과는 복사하지 않고 view에 남겨 둔다
+     *  @param [in] ink 좌표가 입력된 Ink Object
+     *  @param [out] view 인식된 결과를 가리키는 결과 view. 이전 결과의 라인, 블럭 handle은 무효가 된다.
+     *  @return @ref ErrorCode "Error Code"
+     *  @see ResultView
+     */
+    public final static int Recognize(Ink ink, ResultView view) {
+        return view.Recognize(ink);
+    }
     /*@}*/
 
     /***************************************************************
@@ -748,9 +1255,7 @@ public class DHWR {
      *  @return @ref ErrorCode "Error Code"
      */
     public static int SetLogEnable() {
-        byte[] level = new byte[8];
-        level[0] = LEVEL_DEBUG;
-        return SetParam(DHWR.DHWR_LOG_LEVEL, level);
+        return SetLogLevel(LEVEL_DEBUG);
     }
 
     /*!
@@ -758,22 +1263,43 @@ public class DHWR {
      *  @return @ref ErrorCode "Error Code"
      */
     public static int SetLogDisable() {
+        return SetLogLevel(LEVEL_NONE);
+    }
+
+    private static int SetLogLevel(int logLevel) {
         byte[] level = new byte[8];
-        level[0] = LEVEL_NONE;
-        return SetParam(DHWR.DHWR_LOG_LEVEL, level);
+        level[0] = (byte) logLevel;
+        int ret = SetParam(DHWR.DHWR_LOG_LEVEL, level);
+        sLogLevel = (ret == ERR_SUCCESS) ? logLevel : LOG_LEVEL_UNKNOWN;
+        return ret;
     }
 
     /*!
-     *  @brief 로그 출력 레벨을 반환한다
+     *  @brief 로그 출력 레벨을 엔진에서 읽어 반환한다. 읽은 값은 PrintLog()에서 사용하도록 저장된다.
      *  @return 로그 출력 레벨
      */
     public final static byte GetLogLevel() {
         byte[] level = new byte[8];
         DHWR.GetParam(DHWR.DHWR_LOG_LEVEL, level);
+        sLogLevel = level[0];
 
         return level[0];
     }
 
+    /*!
+     *  @brief 지정한 레벨의 로그가 출력되는지 확인한다\n
+     *           저장된 로그 레벨을 사용하므로 엔진을 호출하지 않는다. SetParam()으로 로그 레벨을 직접 바꾼 경우에는 GetLogLevel()을 호출해야 반영된다.
+     *  @param [in] logLevel 로그 레벨
+     *  @return 로그가 출력되면 true
+     */
+    public final static boolean IsLogEnabled(int logLevel) {
+        int level = sLogLevel;
+        if (level == LOG_LEVEL_UNKNOWN) {
+            level = GetLogLevel();
+        }
+        return logLevel <= level;
+    }
+
     /*!
      *  @brief 로그를 출력한다
      *  @param [in] logLevel 로그 레벨
@@ -782,7 +1308,7 @@ public class DHWR {
      *  @return void
      */
     public final static void PrintLog(int logLevel, String tag, String log) {
-        if (logLevel <= GetLogLevel()) {
+        if (IsLogEnabled(logLevel)) {
             switch(logLevel) {
             case DHWR.LEVEL_ERROR:
                 Log.e(tag, log);
@@ -796,5 +1322,16 @@ public class DHWR {
             };
         }
     }
+
+    private static String ToHexString(String text) {
+        StringBuilder hex = new StringBuilder(text.length() * 7);
+        for (int i = 0; i < text.length(); i++) {
+            if (i != 0) {
+                hex.append(' ');
+            }
+            hex.append("0x").append(Integer.toHexString(text.charAt(i) & 0xFFFF));
+        }
+        return hex.toString();
+    }
     /*@}*/
 }
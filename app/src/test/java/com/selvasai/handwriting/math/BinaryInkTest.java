@@ -0,0 +1,215 @@
+/*!
+ *  @date 2026/10/18
+ *  @file BinaryInkTest.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Round trip of {@link BinaryInkWriter} and {@link BinaryInkSource}.
+ */
+public class BinaryInkTest {
+
+    private File mFile;
+
+    @Before
+    public void setUp() throws IOException {
+        mFile = File.createTempFile("BinaryInkTest", ".ink");
+    }
+
+    @After
+    public void tearDown() {
+        mFile.delete();
+    }
+
+    private static StrokeBuffer createInk() {
+        StrokeBuffer ink = new StrokeBuffer();
+        ink.addPoint(10, 20, 1000);
+        ink.addPoint(-5, 300, 1008);
+        ink.addPoint(70000, 21, 1016);
+        ink.endStroke();
+        ink.addPoint(0, 0, 1500);
+        ink.endStroke();
+        return ink;
+    }
+
+    private void write(boolean timestamps, String... ids) throws IOException {
+        BinaryInkWriter writer = new BinaryInkWriter(new FileOutputStream(mFile), timestamps);
+        try {
+            for (String id : ids) {
+                writer.write(id, createInk());
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void assertSameInk(StrokeBuffer expected, StrokeBuffer actual, boolean timestamps) {
+        assertEquals(expected.getStrokeCount(), actual.getStrokeCount());
+        assertEquals(expected.getPointCount(), actual.getPointCount());
+        for (int stroke = 0; stroke < expected.getStrokeCount(); stroke++) {
+            assertEquals(expected.getStrokeEnd(stroke), actual.getStrokeEnd(stroke));
+        }
+        for (int i = 0; i < expected.getPointCount(); i++) {
+            assertEquals(expected.getX(i), actual.getX(i));
+            assertEquals(expected.getY(i), actual.getY(i));
+            if (timestamps) {
+                assertEquals(expected.getTime(i), actual.getTime(i));
+            }
+        }
+    }
+
+    @Test
+    public void roundTripsInksWithTimestamps() throws IOException {
+        write(true, "first", "두 번째");
+        BinaryInkSource source = new BinaryInkSource(mFile);
+        try {
+            assertTrue(source.hasTimestamps());
+            StrokeBuffer ink = new StrokeBuffer();
+            assertEquals("first", source.next(ink));
+            assertSameInk(createInk(), ink, true);
+            assertEquals("두 번째", source.next(ink));
+            assertSameInk(createInk(), ink, true);
+            assertNull(source.next(ink));
+        } finally {
+            source.close();
+        }
+    }
+
+    @Test
+    public void roundTripsInksWithoutTimestamps() throws IOException {
+        write(false, "a");
+        BinaryInkSource source = new BinaryInkSource(mFile);
+        try {
+            assertFalse(source.hasTimestamps());
+            StrokeBuffer ink = new StrokeBuffer();
+            assertEquals("a", source.next(ink));
+            assertSameInk(createInk(), ink, false);
+            assertNull(source.next(ink));
+        } finally {
+            source.close();
+        }
+    }
+
+    @Test
+    public void rejectsOtherFiles() throws IOException {
+        writeBytes(new byte[] { 'P', 'K', 3, 4, 0, 0 });
+        try {
+            new BinaryInkSource(mFile).close();
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void rejectsIdLengthPastEndOfFile() throws IOException {
+        byte[] header = headerBytes();
+        byte[] bytes = new byte[header.length + 4];
+        System.arraycopy(header, 0, bytes, 0, header.length);
+        bytes[header.length] = (byte) 0xff;
+        bytes[header.length + 1] = (byte) 0xff;
+        bytes[header.length + 2] = (byte) 0xff;
+        bytes[header.length + 3] = 0x7f;
+        writeBytes(bytes);
+        BinaryInkSource source = new BinaryInkSource(mFile);
+        try {
+            source.next(new StrokeBuffer());
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("offset " + header.length));
+        } finally {
+            source.close();
+        }
+    }
+
+    @Test
+    public void rejectsTruncatedRecord() throws IOException {
+        write(true, "first");
+        byte[] bytes = readBytes();
+        writeBytes(Arrays.copyOf(bytes, bytes.length - 2));
+        BinaryInkSource source = new BinaryInkSource(mFile);
+        try {
+            source.next(new StrokeBuffer());
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Truncated ink record"));
+        } finally {
+            source.close();
+        }
+    }
+
+    @Test
+    public void rejectsMalformedVarint() throws IOException {
+        byte[] header = headerBytes();
+        byte[] bytes = Arrays.copyOf(header, header.length + 6);
+        Arrays.fill(bytes, header.length, bytes.length, (byte) 0xff);
+        writeBytes(bytes);
+        BinaryInkSource source = new BinaryInkSource(mFile);
+        try {
+            source.next(new StrokeBuffer());
+            fail();
+        } catch (IOException e) {
+            assertEquals("Malformed varint at offset " + header.length, e.getMessage());
+        } finally {
+            source.close();
+        }
+    }
+
+    private static byte[] headerBytes() {
+        byte[] header = new byte[InkFormat.HEADER_SIZE];
+        System.arraycopy(InkFormat.MAGIC, 0, header, 0, InkFormat.MAGIC.length);
+        header[InkFormat.MAGIC.length] = InkFormat.VERSION;
+        return header;
+    }
+
+    @Test
+    public void zigzagRoundTrips() {
+        int[] values = { 0, 1, -1, 63, -64, Integer.MAX_VALUE, Integer.MIN_VALUE };
+        int[] decoded = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            decoded[i] = InkFormat.unzigzag(InkFormat.zigzag(values[i]));
+        }
+        assertArrayEquals(values, decoded);
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        FileOutputStream output = new FileOutputStream(mFile);
+        try {
+            output.write(bytes);
+        } finally {
+            output.close();
+        }
+    }
+
+    private byte[] readBytes() throws IOException {
+        RandomAccessFile file = new RandomAccessFile(mFile, "r");
+        try {
+            byte[] bytes = new byte[(int) file.length()];
+            file.readFully(bytes);
+            return bytes;
+        } finally {
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*!
+ *  @date 2026/10/18
+ *  @file RecognitionCacheTest.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RecognitionCacheTest {
+
+    private static RecognitionResult result(String text) {
+        return new RecognitionResult(new RecognitionResult.Block[][] {
+                { new RecognitionResult.Block(new String[] { text }, RecognitionResult.NO_STROKES) } });
+    }
+
+    private static long sizeOfEntry() {
+        RecognitionCache cache = new RecognitionCache();
+        cache.put(0, result("x"));
+        return cache.getSizeBytes();
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedEntryOverBudget() {
+        RecognitionCache cache = new RecognitionCache(2 * sizeOfEntry());
+        cache.put(1, result("a"));
+        cache.put(2, result("b"));
+        assertNotNull(cache.get(1));
+        cache.put(3, result("c"));
+
+        assertNotNull(cache.peek(1));
+        assertNull(cache.peek(2));
+        assertNotNull(cache.peek(3));
+        assertEquals(1, cache.getEvictionCount());
+        assertTrue(cache.getSizeBytes() <= cache.getMaxBytes());
+    }
+
+    @Test
+    public void replacingEntryKeepsSizeAccurate() {
+        final long entry = sizeOfEntry();
+        RecognitionCache cache = new RecognitionCache(10 * entry);
+        cache.put(1, result("a"));
+        cache.put(1, result("b"));
+
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(entry, cache.getSizeBytes());
+    }
+
+    @Test
+    public void shrinkingBudgetEvicts() {
+        final long entry = sizeOfEntry();
+        RecognitionCache cache = new RecognitionCache(10 * entry);
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, result("a"));
+        }
+        cache.setMaxBytes(2 * entry);
+
+        assertEquals(2, cache.getEntryCount());
+        assertNotNull(cache.peek(3));
+        assertNotNull(cache.peek(4));
+        assertEquals(2 * entry, cache.getSizeBytes());
+    }
+
+    @Test
+    public void countsHitsAndMissesButNotPeeks() {
+        RecognitionCache cache = new RecognitionCache();
+        cache.put(1, result("a"));
+        cache.get(1);
+        cache.get(2);
+        cache.peek(1);
+        cache.peek(2);
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void fingerprintIgnoresPositionButNotShape() {
+        StrokeBuffer ink = stroke(0, 0);
+        StrokeBuffer moved = stroke(100, 50);
+        StrokeBuffer split = stroke(0, 0);
+        split.clear();
+        split.addPoint(0, 0);
+        split.addPoint(10, 10);
+        split.endStroke();
+        split.addPoint(20, 0);
+        split.endStroke();
+
+        final long key = RecognitionCache.fingerprint(ink, 1, 2, "r1");
+        assertEquals(key, RecognitionCache.fingerprint(moved, 1, 2, "r1"));
+        assertNotEquals(key, RecognitionCache.fingerprint(split, 1, 2, "r1"));
+        assertNotEquals(key, RecognitionCache.fingerprint(ink, 3, 2, "r1"));
+        assertNotEquals(key, RecognitionCache.fingerprint(ink, 1, 2, "r2"));
+    }
+
+    private static StrokeBuffer stroke(int x, int y) {
+        StrokeBuffer ink = new StrokeBuffer();
+        ink.addPoint(x, y);
+        ink.addPoint(x + 10, y + 10);
+        ink.addPoint(x + 20, y);
+        ink.endStroke();
+        return ink;
+    }
+}
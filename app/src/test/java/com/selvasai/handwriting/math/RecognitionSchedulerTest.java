@@ -0,0 +1,297 @@
+/*!
+ *  @date 2026/10/18
+ *  @file RecognitionSchedulerTest.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RecognitionSchedulerTest {
+
+    private final static long TIMEOUT_SECONDS = 5;
+    private final static long FINGERPRINT = 42;
+
+    private final List<String> mCalls = Collections.synchronizedList(new ArrayList<String>());
+    private final FakeEngine mEngine = new FakeEngine();
+    private final EngineExecutor mEngineExecutor = new EngineExecutor();
+    private final CountDownLatch mRelease = new CountDownLatch(1);
+    private final AtomicInteger mDeliveries = new AtomicInteger();
+    private RecognitionScheduler mScheduler;
+
+    @Before
+    public void setUp() {
+        mScheduler = new RecognitionScheduler(mEngine, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                mDeliveries.incrementAndGet();
+                command.run();
+            }
+        }, mEngineExecutor);
+    }
+
+    @After
+    public void tearDown() {
+        mRelease.countDown();
+    }
+
+    @Test
+    public void deliversResultThroughCallbackExecutor() throws Exception {
+        ResultListener listener = new ResultListener();
+        RecognitionResult result = mScheduler.recognize(listener).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(1, mDeliveries.get());
+        assertEquals(1, listener.mResults.size());
+        assertSame(result, listener.mResults.get(0));
+    }
+
+    @Test
+    public void newRequestSupersedesQueuedRequest() throws Exception {
+        blockEngineThread();
+        ResultListener first = new ResultListener();
+        ResultListener second = new ResultListener();
+        Future<RecognitionResult> superseded = mScheduler.recognize(first);
+        Future<RecognitionResult> current = mScheduler.recognize(second);
+        mRelease.countDown();
+        current.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertTrue(superseded.isCancelled());
+        assertEquals(0, first.mResults.size());
+        assertEquals(1, second.mResults.size());
+        assertEquals(list("recognize"), mCalls);
+    }
+
+    @Test
+    public void failedRecognitionIsNotCached() throws Exception {
+        mEngine.mResult = RecognitionResult.failure(-1);
+        ResultListener listener = new ResultListener();
+        mScheduler.recognize(FINGERPRINT, listener).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(1, listener.mResults.size());
+        assertNull(mScheduler.getCache().peek(FINGERPRINT));
+    }
+
+    @Test
+    public void successfulRecognitionIsCached() throws Exception {
+        ResultListener listener = new ResultListener();
+        mScheduler.recognize(FINGERPRINT, listener).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        mScheduler.recognize(FINGERPRINT, listener).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(list("recognize"), mCalls);
+        assertEquals(2, listener.mResults.size());
+        assertSame(mEngine.mResult, mScheduler.getCache().peek(FINGERPRINT));
+    }
+
+    @Test
+    public void interactiveTaskCancelsQueuedSpeculation() throws Exception {
+        blockEngineThread();
+        mScheduler.speculate(FINGERPRINT);
+        mScheduler.execute(record("addStroke"));
+        mRelease.countDown();
+        awaitBackgroundTasks();
+
+        assertEquals(list("addStroke"), mCalls);
+        assertNull(mScheduler.getCache().peek(FINGERPRINT));
+    }
+
+    @Test
+    public void speculationFillsCacheForLaterRequest() throws Exception {
+        mScheduler.speculate(FINGERPRINT);
+        awaitBackgroundTasks();
+        ResultListener listener = new ResultListener();
+        mScheduler.recognize(FINGERPRINT, listener).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(list("recognize"), mCalls);
+        assertSame(mEngine.mResult, listener.mResults.get(0));
+        assertEquals(1, mScheduler.getCache().getHitCount());
+    }
+
+    @Test
+    public void interactiveTasksRunInOrderAheadOfBackgroundTasks() throws Exception {
+        blockEngineThread();
+        mScheduler.execute(record("background"), EngineExecutor.PRIORITY_BACKGROUND);
+        mScheduler.execute(record("first"));
+        mScheduler.execute(record("second"));
+        mRelease.countDown();
+        awaitBackgroundTasks();
+
+        assertEquals(list("first", "second", "background"), mCalls);
+    }
+
+    @Test
+    public void engineFailureReachesListener() throws Exception {
+        final RuntimeException error = new IllegalStateException("engine");
+        mEngine.mError = error;
+        ResultListener listener = new ResultListener();
+        Future<RecognitionResult> request = mScheduler.recognize(listener);
+        try {
+            request.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            // expected
+        }
+
+        assertEquals(0, listener.mResults.size());
+        assertSame(error, listener.mError);
+    }
+
+    @Test
+    public void failedSpeculationIsNotReportedAsUncaught() throws Exception {
+        final List<Throwable> uncaught = Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(Thread thread, Throwable error) {
+                uncaught.add(error);
+            }
+        });
+        try {
+            mEngine.mError = new IllegalStateException("engine");
+            mScheduler.speculate(FINGERPRINT);
+            awaitBackgroundTasks();
+
+            assertEquals(list("recognize"), mCalls);
+            assertEquals(0, uncaught.size());
+            assertNull(mScheduler.getCache().peek(FINGERPRINT));
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(previous);
+        }
+    }
+
+    private void blockEngineThread() {
+        mEngineExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    mRelease.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits until every task queued so far, of either priority, has run.
+     */
+    private void awaitBackgroundTasks() throws Exception {
+        mEngineExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, EngineExecutor.PRIORITY_BACKGROUND).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private Runnable record(final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                mCalls.add(name);
+            }
+        };
+    }
+
+    private static List<String> list(String... names) {
+        List<String> list = new ArrayList<String>();
+        Collections.addAll(list, names);
+        return list;
+    }
+
+    private static class ResultListener implements RecognitionScheduler.OnRecognizedListener {
+        final List<RecognitionResult> mResults = Collections.synchronizedList(new ArrayList<RecognitionResult>());
+        volatile Throwable mError = null;
+
+        @Override
+        public void onRecognized(RecognitionResult result) {
+            mResults.add(result);
+        }
+
+        @Override
+        public void onRecognitionFailed(Throwable error) {
+            mError = error;
+        }
+    }
+
+    private class FakeEngine implements RecognitionEngine {
+        volatile RecognitionResult mResult = new RecognitionResult(new RecognitionResult.Block[][] {
+                { new RecognitionResult.Block(new String[] { "x" }, RecognitionResult.NO_STROKES) } });
+        volatile RuntimeException mError = null;
+
+        @Override
+        public int initialize() {
+            return 0;
+        }
+
+        @Override
+        public int destroy() {
+            return 0;
+        }
+
+        @Override
+        public void clearInk() {
+        }
+
+        @Override
+        public void addStroke(int[] points, int offset, int count) {
+        }
+
+        @Override
+        public void setInk(int[] points, int[] strokeEnds, int strokeCount) {
+        }
+
+        @Override
+        public RecognitionResult recognize() {
+            mCalls.add("recognize");
+            if (mError != null) {
+                throw mError;
+            }
+            return mResult;
+        }
+
+        @Override
+        public RecognitionResult recognize(int[] points, int[] strokeEnds, int strokeCount) {
+            return recognize();
+        }
+
+        @Override
+        public void setResultDepth(int candidates, boolean strokeIndices) {
+        }
+
+        @Override
+        public RecognitionResult expand(RecognitionResult result, int candidates, boolean strokeIndices) {
+            return result;
+        }
+
+        @Override
+        public void prepareLanguage(int language, int option) {
+        }
+
+        @Override
+        public void setLanguage(int language, int option) {
+        }
+
+        @Override
+        public String getVersion() {
+            return "";
+        }
+    }
+}
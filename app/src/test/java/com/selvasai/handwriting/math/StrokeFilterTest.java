@@ -0,0 +1,128 @@
+/*!
+ *  @date 2026/10/18
+ *  @file StrokeFilterTest.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StrokeFilterTest {
+
+    /**
+     * Filters one stroke given as x, y, time triples and returns the finished buffer.
+     */
+    private static StrokeBuffer filter(StrokeFilter filter, int... samples) {
+        StrokeBuffer strokes = new StrokeBuffer();
+        for (int i = 0; i < samples.length; i += 3) {
+            strokes.addPoint(samples[i], samples[i + 1], samples[i + 2]);
+        }
+        filter.apply(strokes);
+        strokes.endStroke();
+        return strokes;
+    }
+
+    private static void assertEnds(StrokeBuffer strokes, int firstX, int firstY, int lastX, int lastY) {
+        final int last = strokes.getPointCount() - 1;
+        assertEquals(firstX, strokes.getX(0));
+        assertEquals(firstY, strokes.getY(0));
+        assertEquals(lastX, strokes.getX(last));
+        assertEquals(lastY, strokes.getY(last));
+    }
+
+    @Test
+    public void minDistanceDropsClosePointsAndKeepsEnds() {
+        StrokeFilter filter = new StrokeFilter();
+        filter.setMinDistance(5);
+        StrokeBuffer strokes = filter(filter, 0, 0, 0, 1, 0, 8, 6, 0, 16, 8, 0, 24, 14, 0, 32);
+
+        assertEquals(3, strokes.getPointCount());
+        assertEquals(6, strokes.getX(1));
+        assertEnds(strokes, 0, 0, 14, 0);
+    }
+
+    @Test
+    public void minDistanceReplacesLastKeptPointWithCloseEnd() {
+        StrokeFilter filter = new StrokeFilter();
+        filter.setMinDistance(5);
+        StrokeBuffer strokes = filter(filter, 0, 0, 0, 6, 0, 8, 7, 0, 16);
+
+        assertEquals(2, strokes.getPointCount());
+        assertEnds(strokes, 0, 0, 7, 0);
+    }
+
+    @Test
+    public void simplifyReducesStraightLineToItsEnds() {
+        StrokeFilter filter = new StrokeFilter();
+        filter.setMinDistance(0);
+        filter.setTolerance(1);
+        int[] samples = new int[50 * 3];
+        for (int i = 0; i < 50; i++) {
+            samples[i * 3] = i * 2;
+            samples[i * 3 + 1] = i;
+            samples[i * 3 + 2] = i * 8;
+        }
+        StrokeBuffer strokes = filter(filter, samples);
+
+        assertEquals(2, strokes.getPointCount());
+        assertEnds(strokes, 0, 0, 98, 49);
+    }
+
+    @Test
+    public void simplifyKeepsCorner() {
+        StrokeFilter filter = new StrokeFilter();
+        filter.setMinDistance(0);
+        filter.setTolerance(1);
+        StrokeBuffer strokes = filter(filter, 0, 0, 0, 10, 0, 8, 20, 0, 16, 20, 10, 24, 20, 20, 32);
+
+        assertEquals(3, strokes.getPointCount());
+        assertEquals(20, strokes.getX(1));
+        assertEquals(0, strokes.getY(1));
+    }
+
+    @Test
+    public void resampleDecimatesDenseStroke() {
+        StrokeFilter filter = new StrokeFilter();
+        filter.setMinDistance(0);
+        filter.setResampleInterval(16);
+        int[] samples = new int[41 * 3];
+        for (int i = 0; i <= 40; i++) {
+            samples[i * 3] = i;
+            samples[i * 3 + 1] = 0;
+            samples[i * 3 + 2] = i * 4;
+        }
+        StrokeBuffer strokes = filter(filter, samples);
+
+        assertEquals(11, strokes.getPointCount());
+        assertEnds(strokes, 0, 0, 40, 0);
+        assertEquals(16, strokes.getTime(1));
+    }
+
+    @Test
+    public void resampleNeverAddsPoints() {
+        StrokeFilter filter = new StrokeFilter();
+        filter.setMinDistance(0);
+        filter.setResampleInterval(10);
+        StrokeBuffer strokes = filter(filter, 0, 0, 0, 50, 50, 1000, 100, 0, 2000);
+
+        assertEquals(3, strokes.getPointCount());
+        assertEquals(50, strokes.getX(1));
+    }
+
+    @Test
+    public void countsPointsInAndOut() {
+        StrokeFilter filter = new StrokeFilter();
+        filter.setMinDistance(5);
+        filter(filter, 0, 0, 0, 1, 0, 8, 6, 0, 16, 8, 0, 24, 14, 0, 32);
+
+        assertEquals(5, filter.getInputPointCount());
+        assertEquals(3, filter.getOutputPointCount());
+        assertTrue(filter.getOutputPointCount() <= filter.getInputPointCount());
+    }
+}
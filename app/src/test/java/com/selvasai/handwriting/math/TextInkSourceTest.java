@@ -0,0 +1,74 @@
+/*!
+ *  @date 2026/10/18
+ *  @file TextInkSourceTest.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class TextInkSourceTest {
+
+    private static StrokeBuffer read(String text) throws IOException {
+        TextInkSource source = new TextInkSource(new StringReader(text));
+        try {
+            StrokeBuffer ink = new StrokeBuffer();
+            source.next(ink);
+            return ink;
+        } finally {
+            source.close();
+        }
+    }
+
+    private static void assertMalformed(String text) {
+        try {
+            read(text);
+            fail(text);
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void readsStrokesAndSkipsEmptyLines() throws IOException {
+        TextInkSource source = new TextInkSource(new StringReader("\na\t1,2 -3,4;5,6\n\n"));
+        StrokeBuffer ink = new StrokeBuffer();
+
+        assertEquals("a", source.next(ink));
+        assertEquals(2, ink.getStrokeCount());
+        assertEquals(3, ink.getPointCount());
+        assertEquals(-3, ink.getX(1));
+        assertNull(source.next(ink));
+        source.close();
+    }
+
+    @Test
+    public void readsIntRangeLimits() throws IOException {
+        StrokeBuffer ink = read("a\t2147483647,-2147483648");
+
+        assertEquals(Integer.MAX_VALUE, ink.getX(0));
+        assertEquals(Integer.MIN_VALUE, ink.getY(0));
+    }
+
+    @Test
+    public void rejectsMalformedCoordinates() {
+        assertMalformed("no id");
+        assertMalformed("a\t1");
+        assertMalformed("a\t-,2");
+        assertMalformed("a\t1,-");
+        assertMalformed("a\t1,x");
+        assertMalformed("a\t2147483648,0");
+        assertMalformed("a\t0,-2147483649");
+        assertMalformed("a\t99999999999,0");
+    }
+}
@@ -0,0 +1,112 @@
+/*!
+ *  @date 2026/10/18
+ *  @file LogGuardBenchmark.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import com.selvy.spmath.DHWR;
+import com.selvy.spmath.NativeStandIn;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-candidate loop of DHWR.Recognize() with logging off, on its own: the debug messages built
+ * for every candidate and the log level read from the engine per message, as first shipped, versus
+ * one cached log level check per recognition. Both read the candidates from the same native result,
+ * so the difference is the logging guard alone.
+ * {@code callNanos} is the modeled cost of one JNI transition (see NativeStandIn.setCallNanos()).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LogGuardBenchmark {
+
+    @Param({"16"})
+    public int blocks;
+
+    @Param({"5"})
+    public int candidates;
+
+    @Param({"0", "100"})
+    public long callNanos;
+
+    private DHWR.Ink mInk;
+    private long mResultHandle;
+
+    @Setup
+    public void setUp() {
+        NativeStandIn.setResultShape(1, blocks, candidates, 3);
+        NativeStandIn.setCallNanos(callNanos);
+        DHWR.SetLogDisable();
+        mInk = new DHWR.Ink();
+        mInk.AddPoint(0, 0);
+        mInk.EndStroke();
+        mResultHandle = DHWR.CreateResultObject();
+        DHWR.RecognizeWithContext(mInk.GetHandle(), mResultHandle);
+    }
+
+    @TearDown
+    public void tearDown() {
+        DHWR.DestroyResultObject(mResultHandle);
+        mInk.close();
+        NativeStandIn.setCallNanos(0);
+    }
+
+    @Benchmark
+    public int candidatesEagerLog() {
+        int length = 0;
+        long handle_line = DHWR.GetLine(mResultHandle, 0);
+        int size_block = DHWR.GetBlockSize(handle_line);
+        for (int j = 0; j < size_block; j++) {
+            long handle_block = DHWR.GetBlock(handle_line, j);
+            int size_candidates = DHWR.GetCandidateSize(handle_block);
+            for (int k = 0; k < size_candidates; k++) {
+                String text = DHWR.GetCandidate(handle_block, k);
+                String strHex = "";
+                for (int l = 0; l < text.length(); l++) {
+                    strHex += "0x" + Integer.toHexString(text.charAt(l) & 0xFFFF);
+                    if (l != text.length() - 1) {
+                        strHex += " ";
+                    }
+                }
+                ResultMarshallingBenchmark.printLog("DHWR.java [0," + j + "," + k + "]: \"" + text + "(" + strHex + ")\"");
+                length += text.length();
+            }
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int candidatesLazyLog() {
+        final boolean debug = DHWR.IsLogEnabled(DHWR.LEVEL_DEBUG);
+        int length = 0;
+        long handle_line = DHWR.GetLine(mResultHandle, 0);
+        int size_block = DHWR.GetBlockSize(handle_line);
+        for (int j = 0; j < size_block; j++) {
+            long handle_block = DHWR.GetBlock(handle_line, j);
+            int size_candidates = DHWR.GetCandidateSize(handle_block);
+            for (int k = 0; k < size_candidates; k++) {
+                String text = DHWR.GetCandidate(handle_block, k);
+                if (debug) {
+                    DHWR.PrintLog(DHWR.LEVEL_DEBUG, DHWR.TAG, "DHWR.java [0," + j + "," + k + "]: \"" + text + "\"");
+                }
+                length += text.length();
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,96 @@
+/*!
+ *  @date 2026/10/18
+ *  @file PointIngestionBenchmark.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import com.selvy.spmath.DHWR;
+import com.selvy.spmath.NativeStandIn;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of taking one stroke of touch samples into the recognizer:
+ * buffering on the Java side versus handing every point to the ink object.
+ * {@link #inkPerPoint} is what the UI thread used to pay per stroke and {@link #strokeBuffer} what it
+ * pays now; {@link #engineAddStroke} is the replay the engine thread does at the end of the stroke.
+ * {@code callNanos} is the modeled cost of one JNI transition (see NativeStandIn.setCallNanos()).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PointIngestionBenchmark {
+
+    @Param({"64", "512"})
+    public int pointsPerStroke;
+
+    @Param({"0", "100"})
+    public long callNanos;
+
+    private int[] mStroke;
+    private StrokeBuffer mBuffer;
+    private DHWR.Ink mInk;
+    private DHWREngine mEngine;
+
+    @Setup
+    public void setUp() {
+        mStroke = new int[pointsPerStroke * 2];
+        for (int i = 0; i < pointsPerStroke; i++) {
+            mStroke[i * 2] = 100 + i;
+            mStroke[i * 2 + 1] = 200 + (int) (50 * Math.sin(i / 8.0));
+        }
+        NativeStandIn.setCallNanos(callNanos);
+        mBuffer = new StrokeBuffer();
+        mInk = new DHWR.Ink();
+        mEngine = new DHWREngine("");
+        mEngine.initialize();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mInk.close();
+        mEngine.destroy();
+        NativeStandIn.setCallNanos(0);
+    }
+
+    @Benchmark
+    public StrokeBuffer strokeBuffer() {
+        mBuffer.clear();
+        for (int i = 0; i < pointsPerStroke; i++) {
+            mBuffer.addPoint(mStroke[i * 2], mStroke[i * 2 + 1], i * 8L);
+        }
+        mBuffer.endStroke();
+        return mBuffer;
+    }
+
+    @Benchmark
+    public DHWR.Ink inkPerPoint() {
+        mInk.Clear();
+        for (int i = 0; i < pointsPerStroke; i++) {
+            mInk.AddPoint(mStroke[i * 2], mStroke[i * 2 + 1]);
+        }
+        mInk.EndStroke();
+        return mInk;
+    }
+
+    @Benchmark
+    public DHWREngine engineAddStroke() {
+        mEngine.clearInk();
+        mEngine.addStroke(mStroke, 0, pointsPerStroke);
+        return mEngine;
+    }
+}
@@ -0,0 +1,102 @@
+/*!
+ *  @date 2026/10/18
+ *  @file RecognitionLatencyBenchmark.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import com.selvy.spmath.NativeStandIn;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recognizes every ink of an ink file through {@link DHWREngine}, with and without {@link StrokeFilter},
+ * so the time the filter takes is weighed against the engine time it saves. Each stroke is filtered
+ * as {@link WritingRecognizer#endStroke} does, then the ink is set and recognized.
+ * {@code recognizeNanosPerPoint} is the modeled engine cost (see NativeStandIn.setRecognizeNanosPerPoint());
+ * only a device measures the real one. By default the bundled handwriting.ink is used; pass
+ * {@code -p inkFile=<path>} to measure recorded ink.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RecognitionLatencyBenchmark {
+
+    @Param({""})
+    public String inkFile;
+
+    @Param({"false", "true"})
+    public boolean filtered;
+
+    @Param({"0", "200"})
+    public long recognizeNanosPerPoint;
+
+    /** Reported by JMH next to the score, summed over each iteration. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PointCounts {
+        public long pointsRecognized;
+    }
+
+    private final List<StrokeBuffer> mInks = new ArrayList<StrokeBuffer>();
+    private final StrokeBuffer mOutput = new StrokeBuffer();
+    private final StrokeFilter mFilter = new StrokeFilter();
+    private DHWREngine mEngine;
+
+    @Setup
+    public void setUp() throws IOException {
+        StrokeFilterBenchmark.readInks(inkFile, mInks);
+        // Resampling as the DHWR docs recommend, on top of the default distance filter.
+        mFilter.setResampleInterval(15);
+        mFilter.setTolerance(1.5f);
+        NativeStandIn.setRecognizeNanosPerPoint(recognizeNanosPerPoint);
+        mEngine = new DHWREngine("");
+        mEngine.initialize();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mEngine.destroy();
+        NativeStandIn.setRecognizeNanosPerPoint(0);
+    }
+
+    @Benchmark
+    public RecognitionResult recognize(PointCounts counts) {
+        RecognitionResult result = null;
+        for (int n = 0; n < mInks.size(); n++) {
+            StrokeBuffer ink = mInks.get(n);
+            mOutput.clear();
+            for (int stroke = 0; stroke < ink.getStrokeCount(); stroke++) {
+                final int end = ink.getStrokeEnd(stroke);
+                for (int i = ink.getStrokeStart(stroke); i < end; i++) {
+                    mOutput.addPoint(ink.getX(i), ink.getY(i), ink.getTime(i));
+                }
+                if (filtered) {
+                    mFilter.apply(mOutput);
+                }
+                mOutput.endStroke();
+            }
+            mEngine.setInk(mOutput.getPoints(), mOutput.getStrokeEnds(), mOutput.getStrokeCount());
+            result = mEngine.recognize();
+            counts.pointsRecognized += mOutput.getPointCount();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,176 @@
+/*!
+ *  @date 2026/10/18
+ *  @file ResultMarshallingBenchmark.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import com.selvy.spmath.DHWR;
+import com.selvy.spmath.NativeStandIn;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copying a recognition result out of the engine: eagerly into a {@link DHWR.Result}, or on demand
+ * from a {@link DHWR.ResultView} into a {@link RecognitionResult} of a given depth.
+ * {@link #recognizeBaseline} is the original per-candidate loop, kept as the reference, and
+ * {@link #recognizeAllocating} the same loop without its logging, to compare allocations with
+ * {@link #recognizeReused} (run with {@code -prof gc}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResultMarshallingBenchmark {
+
+    @Param({"1", "3"})
+    public int lines;
+
+    @Param({"4", "16"})
+    public int blocks;
+
+    @Param({"5"})
+    public int candidates;
+
+    private DHWR.Ink mInk;
+    private DHWR.Result mResult;
+    private DHWR.ResultView mView;
+
+    @Setup
+    public void setUp() {
+        NativeStandIn.setResultShape(lines, blocks, candidates, 3);
+        mInk = new DHWR.Ink();
+        mInk.AddPoint(0, 0);
+        mInk.EndStroke();
+        mResult = new DHWR.Result();
+        mView = new DHWR.ResultView();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mView.close();
+        mResult.close();
+        mInk.close();
+    }
+
+    /**
+     * DHWR.Recognize() as first shipped: a new result object and new lines and blocks per call, the log
+     * level read from the engine for every message, and the messages built even when logging is off.
+     */
+    @Benchmark
+    public DHWR.Result recognizeBaseline() {
+        return recognizeOriginal(true);
+    }
+
+    /**
+     * DHWR.Recognize() as first shipped with its log messages left out: only its allocations remain.
+     */
+    @Benchmark
+    public DHWR.Result recognizeAllocating() {
+        return recognizeOriginal(false);
+    }
+
+    private DHWR.Result recognizeOriginal(boolean logging) {
+        DHWR.Result result = new DHWR.Result();
+        long handle_result = DHWR.CreateResultObject();
+        DHWR.RecognizeWithContext(mInk.GetHandle(), handle_result);
+        long size_line = DHWR.GetLineSize(handle_result);
+        for (int i = 0; i < size_line; i++) {
+            DHWR.Line line = new DHWR.Line();
+            long handle_line = DHWR.GetLine(handle_result, i);
+            int size_block = DHWR.GetBlockSize(handle_line);
+            for (int j = 0; j < size_block; j++) {
+                DHWR.Block block = new DHWR.Block();
+                long handle_block = DHWR.GetBlock(handle_line, j);
+                int size_stroke = DHWR.GetStrokeSize(handle_block);
+                block.info.stroke_count = size_stroke;
+                block.info.stroke_indices = new int[size_stroke];
+                DHWR.GetStrokeIndices(handle_block, block.info.stroke_indices, size_stroke);
+                if (logging) {
+                    printLog("DHWR.java Stroke count : " + size_stroke);
+                    for (int k = 0; k < size_stroke; k++) {
+                        printLog("DHWR.java Stroke [" + k + "] : " + block.info.stroke_indices[k]);
+                    }
+                }
+                int size_candidates = DHWR.GetCandidateSize(handle_block);
+                for (int k = 0; k < size_candidates; k++) {
+                    String text = DHWR.GetCandidate(handle_block, k);
+                    if (logging) {
+                        String strHex = "";
+                        for (int l = 0; l < text.length(); l++) {
+                            strHex += "0x" + Integer.toHexString(text.charAt(l) & 0xFFFF);
+                            if (l != text.length() - 1) {
+                                strHex += " ";
+                            }
+                        }
+                        printLog("DHWR.java [" + i + "," + j + "," + k + "]: \"" + text + "(" + strHex + ")\"");
+                    }
+                    block.candidates.add(text);
+                }
+                if (!block.candidates.isEmpty()) {
+                    line.add(block);
+                }
+            }
+            if (!line.isEmpty()) {
+                result.add(line);
+            }
+        }
+        DHWR.DestroyResultObject(handle_result);
+        return result;
+    }
+
+    /**
+     * PrintLog() guarded as it first shipped: the log level is read from the engine for every message.
+     */
+    static void printLog(String log) {
+        byte[] level = new byte[8];
+        DHWR.GetParam(DHWR.DHWR_LOG_LEVEL, level);
+        if (DHWR.LEVEL_DEBUG <= level[0]) {
+            DHWR.PrintLog(DHWR.LEVEL_DEBUG, DHWR.TAG, log);
+        }
+    }
+
+    @Benchmark
+    public DHWR.Result recognizeReused() {
+        DHWR.Recognize(mInk, mResult);
+        return mResult;
+    }
+
+    @Benchmark
+    public DHWR.Result recognizeNewResult() {
+        DHWR.Result result = new DHWR.Result();
+        DHWR.Recognize(mInk, result);
+        result.close();
+        return result;
+    }
+
+    @Benchmark
+    public String viewTopCandidate() {
+        DHWR.Recognize(mInk, mView);
+        return DHWREngine.createResult(mView, 1, false).getTopCandidate();
+    }
+
+    @Benchmark
+    public RecognitionResult viewAllCandidates() {
+        DHWR.Recognize(mInk, mView);
+        return DHWREngine.createResult(mView, candidates, true);
+    }
+
+    @Benchmark
+    public String viewDisplayString() {
+        DHWR.Recognize(mInk, mView);
+        return DHWREngine.createResult(mView, candidates, false).toDisplayString();
+    }
+}
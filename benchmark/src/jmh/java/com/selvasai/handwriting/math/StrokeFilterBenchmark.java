@@ -0,0 +1,119 @@
+/*!
+ *  @date 2026/10/18
+ *  @file StrokeFilterBenchmark.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every stroke of an ink file through {@link StrokeFilter}, as {@link WritingRecognizer#endStroke}
+ * does, and counts the points that go in and come out next to the time taken.
+ * By default the bundled handwriting.ink is used; pass {@code -p inkFile=<path>} to measure recorded ink.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StrokeFilterBenchmark {
+
+    @Param({""})
+    public String inkFile;
+
+    @Param({"0", "15"})
+    public int resampleInterval;
+
+    @Param({"0", "1"})
+    public int minDistance;
+
+    @Param({"0", "1.5"})
+    public float tolerance;
+
+    /** Reported by JMH next to the score, summed over each iteration. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PointCounts {
+        public long pointsIn;
+        public long pointsOut;
+    }
+
+    private final List<StrokeBuffer> mInks = new ArrayList<StrokeBuffer>();
+    private final StrokeBuffer mOutput = new StrokeBuffer();
+    private final StrokeFilter mFilter = new StrokeFilter();
+
+    @Setup
+    public void setUp() throws IOException {
+        readInks(inkFile, mInks);
+        mFilter.setResampleInterval(resampleInterval);
+        mFilter.setMinDistance(minDistance);
+        mFilter.setTolerance(tolerance);
+    }
+
+    /**
+     * Reads every ink of {@code inkFile}, or of the bundled handwriting.ink when it is empty.
+     */
+    static void readInks(String inkFile, List<StrokeBuffer> inks) throws IOException {
+        File file = inkFile.isEmpty() ? extractBundledInk() : new File(inkFile);
+        try (BinaryInkSource source = new BinaryInkSource(file)) {
+            StrokeBuffer ink = new StrokeBuffer();
+            while (source.next(ink) != null) {
+                inks.add(ink);
+                ink = new StrokeBuffer();
+            }
+        }
+    }
+
+    private static File extractBundledInk() throws IOException {
+        File file = File.createTempFile("handwriting", ".ink");
+        file.deleteOnExit();
+        try (InputStream input = StrokeFilterBenchmark.class.getResourceAsStream("/handwriting.ink");
+             OutputStream output = new FileOutputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                output.write(buffer, 0, read);
+            }
+        }
+        return file;
+    }
+
+    @Benchmark
+    public StrokeBuffer filter(PointCounts counts) {
+        mFilter.resetCounters();
+        for (int n = 0; n < mInks.size(); n++) {
+            StrokeBuffer ink = mInks.get(n);
+            mOutput.clear();
+            for (int stroke = 0; stroke < ink.getStrokeCount(); stroke++) {
+                final int end = ink.getStrokeEnd(stroke);
+                for (int i = ink.getStrokeStart(stroke); i < end; i++) {
+                    mOutput.addPoint(ink.getX(i), ink.getY(i), ink.getTime(i));
+                }
+                mFilter.apply(mOutput);
+                mOutput.endStroke();
+            }
+        }
+        counts.pointsIn += mFilter.getInputPointCount();
+        counts.pointsOut += mFilter.getOutputPointCount();
+        return mOutput;
+    }
+}
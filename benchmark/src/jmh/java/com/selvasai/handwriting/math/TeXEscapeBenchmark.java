@@ -0,0 +1,48 @@
+/*!
+ *  @date 2026/10/18
+ *  @file TeXEscapeBenchmark.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escaping a recognized TeX string before it is passed to the MathJax page.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TeXEscapeBenchmark {
+
+    @Param({"1", "8"})
+    public int repeat;
+
+    private String mTeX;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < repeat; i++) {
+            sb.append("\\frac{a'+b}{\\sqrt{x_1^2+y_1^2}}+\\sum_{i=0}^{n}c_i\n");
+        }
+        mTeX = sb.toString();
+    }
+
+    @Benchmark
+    public String doubleEscapeTeX() {
+        return TeXUtils.doubleEscapeTeX(mTeX);
+    }
+}
@@ -0,0 +1,30 @@
+/*!
+ *  @date 2026/10/18
+ *  @file Log.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package android.util;
+
+/**
+ * Stand-in for android.util.Log so DHWR.java compiles on a plain JVM. Messages are discarded.
+ */
+public final class Log {
+
+    private Log() {
+    }
+
+    public static int d(String tag, String msg) {
+        return 0;
+    }
+
+    public static int i(String tag, String msg) {
+        return 0;
+    }
+
+    public static int e(String tag, String msg) {
+        return 0;
+    }
+}
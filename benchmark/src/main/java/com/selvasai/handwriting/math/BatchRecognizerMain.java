@@ -0,0 +1,108 @@
+/*!
+ *  @date 2026/10/18
+ *  @file BatchRecognizerMain.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import com.selvy.spmath.DHWR;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Runs {@link BatchRecognizer} on the JVM, against the NativeStandIn engine of the benchmark build,
+ * to measure the Java side of batch recognition and check its output without a device.
+ * Files ending in .txt are read with {@link TextInkSource}, others with {@link BinaryInkSource}.
+ * Results go to the output file, or standard output; the report goes to standard error.
+ * Like the app, it makes every engine call on the shared {@link EngineExecutor#getDefault()} thread.
+ */
+public final class BatchRecognizerMain {
+
+    private final static Charset UTF_8 = Charset.forName("UTF-8");
+
+    private BatchRecognizerMain() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: BatchRecognizerMain <ink file> [output file]");
+            System.exit(2);
+        }
+        final DHWREngine engine = new DHWREngine("");
+        final int status = initialize(engine);
+        if (status != DHWR.ERR_SUCCESS) {
+            System.err.println("Engine initialization failed: " + status);
+            System.exit(1);
+        }
+        try (InkSource source = openInk(new File(args[0]));
+             Writer output = new OutputStreamWriter(args.length > 1 ? new FileOutputStream(args[1]) : System.out, UTF_8)) {
+            System.err.println(run(engine, source, output));
+        } finally {
+            destroy(engine);
+        }
+    }
+
+    /**
+     * Initializes {@code engine} on the shared engine thread, which makes every DHWR call of the batch.
+     */
+    static int initialize(final RecognitionEngine engine) throws IOException {
+        return call(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return engine.initialize();
+            }
+        });
+    }
+
+    static void destroy(final RecognitionEngine engine) throws IOException {
+        call(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return engine.destroy();
+            }
+        });
+    }
+
+    static BatchRecognizer.Report run(final RecognitionEngine engine, InkSource source, Writer output) throws IOException {
+        call(new Callable<Void>() {
+            @Override
+            public Void call() {
+                // The output lists every rank.
+                engine.setResultDepth(DHWR.MAX_CANDIDATES, false);
+                return null;
+            }
+        });
+        return new BatchRecognizer(engine).run(source, output);
+    }
+
+    private static <T> T call(Callable<T> task) throws IOException {
+        try {
+            return EngineExecutor.getDefault().submit(task, EngineExecutor.PRIORITY_INTERACTIVE).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    static InkSource openInk(File file) throws IOException {
+        if (file.getName().endsWith(".txt")) {
+            return new TextInkSource(new InputStreamReader(new FileInputStream(file), UTF_8));
+        }
+        return new BinaryInkSource(file);
+    }
+}
@@ -0,0 +1,255 @@
+/*!
+ *  @date 2026/10/18
+ *  @file NativeStandIn.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvy.spmath;
+
+/**
+ * Plain Java replacement for the native methods of DHWR, used by the benchmark build.
+ * Inks only count their points, and every recognition returns a fixed result of
+ * lines x blocks x candidates whose strings are created once, so benchmarks measure the
+ * Java-side work around the engine rather than string creation or recognition itself.
+ * The benchmark build's DHWR calls {@link #enter()} before every native method, which can spin for a
+ * set time to stand for the JNI transition that plain Java calls do not pay. It is 0 by default and
+ * is a model only: measure the real cost on a device. Recognition can likewise be given a cost per
+ * ink point with {@link #setRecognizeNanosPerPoint(long)}.
+ */
+public final class NativeStandIn {
+
+    private static int sLines = 1;
+    private static int sBlocks = 8;
+    private static int sCandidates = DHWR.MAX_CANDIDATES;
+    private static int sStrokes = 3;
+    private static String[] sTexts = createTexts(sCandidates);
+    private static int sInkCount = 0;
+    private static long sNextHandle = 1;
+    private static byte sLogLevel = DHWR.LEVEL_NONE;
+    private static long sCallNanos = 0;
+    private static long sRecognizeNanosPerPoint = 0;
+    private static int sRecognizeStatus = DHWR.ERR_SUCCESS;
+    private static int sRecognizeCount = 0;
+
+    private NativeStandIn() {
+    }
+
+    public static void setResultShape(int lines, int blocks, int candidates, int strokes) {
+        sLines = lines;
+        sBlocks = blocks;
+        sCandidates = candidates;
+        sStrokes = strokes;
+        sTexts = createTexts(candidates);
+    }
+
+    /**
+     * Sets the time every native call spends before it runs, standing for the JNI transition.
+     */
+    public static void setCallNanos(long nanos) {
+        sCallNanos = nanos;
+    }
+
+    /**
+     * Called by the benchmark build's DHWR on entry to every native method.
+     */
+    public static void enter() {
+        spin(sCallNanos);
+    }
+
+    static void spin(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        final long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) {
+            // busy wait, as a native call keeps the thread
+        }
+    }
+
+    /**
+     * Sets the time every recognition spends per point of the ink, standing for the engine's own work.
+     * It is 0 by default and is a model only: the real engine's cost does not have to be linear.
+     */
+    public static void setRecognizeNanosPerPoint(long nanos) {
+        sRecognizeNanosPerPoint = nanos;
+    }
+
+    /**
+     * Makes every following recognition of a non-empty ink return {@code status}.
+     */
+    public static void setRecognizeStatus(int status) {
+        sRecognizeStatus = status;
+    }
+
+    public static int getRecognizeCount() {
+        return sRecognizeCount;
+    }
+
+    private static String[] createTexts(int candidates) {
+        String[] texts = new String[candidates];
+        for (int i = 0; i < candidates; i++) {
+            texts[i] = "\\frac{x^" + i + "}{y_" + i + "}";
+        }
+        return texts;
+    }
+
+    // Main
+    public static int Create(String key) {
+        return DHWR.ERR_SUCCESS;
+    }
+
+    public static int Close() {
+        return DHWR.ERR_SUCCESS;
+    }
+
+    public static int RecognizeWithContext(long ink, long result) {
+        sRecognizeCount++;
+        spin(sInkCount * sRecognizeNanosPerPoint);
+        return sInkCount == 0 ? DHWR.ERR_EMPTY_INK : sRecognizeStatus;
+    }
+
+    // Ink
+    public static long CreateInkObject() {
+        return sNextHandle++;
+    }
+
+    public static void DestroyInkObject(long ink) {
+    }
+
+    public static boolean AddPoint(long ink, int x, int y) {
+        sInkCount++;
+        return true;
+    }
+
+    public static boolean EndStroke(long ink) {
+        return true;
+    }
+
+    public static void InkClear(long ink) {
+        sInkCount = 0;
+    }
+
+    public static boolean GetInkPoint(long ink, int index, DHWR.Point point) {
+        point.x = index;
+        point.y = index;
+        return index < sInkCount;
+    }
+
+    public static int GetInkCount(long ink) {
+        return sInkCount;
+    }
+
+    // Setting
+    public static int SetAttribute(long setting) {
+        return DHWR.ERR_SUCCESS;
+    }
+
+    public static long CreateSettingObject() {
+        return sNextHandle++;
+    }
+
+    public static void DestroySettingObject(long setting) {
+    }
+
+    public static int SetRecognitionMode(long setting, int mode) {
+        return DHWR.ERR_SUCCESS;
+    }
+
+    public static int SetCandidateSize(long setting, int sizeCand) {
+        return DHWR.ERR_SUCCESS;
+    }
+
+    public static int AddLanguage(long setting, int lang, int option) {
+        return DHWR.ERR_SUCCESS;
+    }
+
+    public static int GetLanguageSize(long setting) {
+        return 1;
+    }
+
+    public static int ClearLanguage(long setting) {
+        return DHWR.ERR_SUCCESS;
+    }
+
+    public static int SetUserCharSet(long setting, char[] charset) {
+        return DHWR.ERR_SUCCESS;
+    }
+
+    // Result
+    public static long CreateResultObject() {
+        return sNextHandle++;
+    }
+
+    public static int GetLineSize(long context) {
+        return sLines;
+    }
+
+    public static long GetLine(long context, int index) {
+        return index;
+    }
+
+    public static int GetBlockSize(long line) {
+        return sBlocks;
+    }
+
+    public static long GetBlock(long line, int index) {
+        return index;
+    }
+
+    public static int GetStrokeSize(long block) {
+        return sStrokes;
+    }
+
+    public static int GetStrokeIndices(long block, int[] indices, int size) {
+        for (int i = 0; i < size; i++) {
+            indices[i] = (int) block * sStrokes + i;
+        }
+        return DHWR.ERR_SUCCESS;
+    }
+
+    public static int GetCandidateSize(long block) {
+        return sCandidates;
+    }
+
+    public static String GetCandidate(long block, int index) {
+        return sTexts[index];
+    }
+
+    public static void DestroyResultObject(long context) {
+    }
+
+    // Optional
+    public static int SetExternalLibraryPath(char[] path) {
+        return DHWR.ERR_SUCCESS;
+    }
+
+    public static int SetExternalResourcePath(char[] path) {
+        return DHWR.ERR_SUCCESS;
+    }
+
+    public static int SetParam(int type, byte[] param) {
+        if (type == DHWR.DHWR_LOG_LEVEL) {
+            sLogLevel = param[0];
+        }
+        return DHWR.ERR_SUCCESS;
+    }
+
+    public static int GetParam(int type, byte[] param) {
+        if (type == DHWR.DHWR_LOG_LEVEL) {
+            param[0] = sLogLevel;
+        }
+        return DHWR.ERR_SUCCESS;
+    }
+
+    public static int GetRevision(char[] revision) {
+        "standin".getChars(0, 7, revision, 0);
+        return DHWR.ERR_SUCCESS;
+    }
+
+    public static int GetDueDate(int[] dueDate) {
+        dueDate[0] = 0;
+        return DHWR.ERR_SUCCESS;
+    }
+}
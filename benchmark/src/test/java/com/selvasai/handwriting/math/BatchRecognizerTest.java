@@ -0,0 +1,81 @@
+/*!
+ *  @date 2026/10/18
+ *  @file BatchRecognizerTest.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import com.selvy.spmath.DHWR;
+import com.selvy.spmath.NativeStandIn;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the output of {@link BatchRecognizer} against the NativeStandIn engine.
+ */
+public class BatchRecognizerTest {
+
+    private DHWREngine mEngine;
+
+    @Before
+    public void setUp() throws IOException {
+        mEngine = new DHWREngine("");
+        assertEquals(DHWR.ERR_SUCCESS, BatchRecognizerMain.initialize(mEngine));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        BatchRecognizerMain.destroy(mEngine);
+        NativeStandIn.setRecognizeStatus(DHWR.ERR_SUCCESS);
+        NativeStandIn.setResultShape(1, 8, DHWR.MAX_CANDIDATES, 3);
+    }
+
+    @Test
+    public void writesOneLinePerInkWithEscapedCandidates() throws IOException {
+        NativeStandIn.setResultShape(2, 2, 2, 1);
+        StringWriter output = new StringWriter();
+        BatchRecognizer.Report report = BatchRecognizerMain.run(mEngine,
+                new TextInkSource(new StringReader("first\t1,2 3,4;5,6\nsecond\\id\t7,8\n")), output);
+
+        final String rank0 = "\\\\frac{x^0}{y_0} \\\\frac{x^0}{y_0}";
+        final String rank1 = "\\\\frac{x^1}{y_1} \\\\frac{x^1}{y_1}";
+        final String candidates = rank0 + "\\n" + rank0 + "\t" + rank1 + "\\n" + rank1;
+        assertEquals("first\t" + candidates + "\n"
+                + "second\\\\id\t" + candidates + "\n", output.toString());
+        assertEquals(2, report.count);
+        assertEquals(0, report.failureCount);
+    }
+
+    @Test
+    public void writesStatusOfFailedRecognitions() throws IOException {
+        NativeStandIn.setRecognizeStatus(DHWR.ERR_NORESULT);
+        StringWriter output = new StringWriter();
+        BatchRecognizer.Report report = BatchRecognizerMain.run(mEngine,
+                new TextInkSource(new StringReader("first\t1,2 3,4\nsecond\t5,6\n")), output);
+
+        assertEquals("first\t!ERR=" + DHWR.ERR_NORESULT + "\n"
+                + "second\t!ERR=" + DHWR.ERR_NORESULT + "\n", output.toString());
+        assertEquals(2, report.count);
+        assertEquals(2, report.failureCount);
+    }
+
+    @Test
+    public void writesNothingForAnEmptySource() throws IOException {
+        StringWriter output = new StringWriter();
+        BatchRecognizer.Report report = BatchRecognizerMain.run(mEngine, new TextInkSource(new StringReader("")), output);
+
+        assertEquals("", output.toString());
+        assertEquals(0, report.count);
+    }
+}
@@ -0,0 +1,78 @@
+/*!
+ *  @date 2026/10/18
+ *  @file DHWREngineTest.java
+ *  @author SELVAS AI
+ *
+ *  Copyright 2026. SELVAS AI Inc. All Rights Reserved.
+ */
+
+package com.selvasai.handwriting.math;
+
+import com.selvy.spmath.DHWR;
+import com.selvy.spmath.NativeStandIn;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks how {@link DHWREngine} reads results out of its result view, against the NativeStandIn engine.
+ */
+public class DHWREngineTest {
+
+    // Candidates kept by DHWREngine per block.
+    private final static int CANDIDATES = 5;
+
+    private DHWREngine mEngine;
+
+    @Before
+    public void setUp() {
+        mEngine = new DHWREngine("");
+        mEngine.initialize();
+        mEngine.addStroke(new int[] { 0, 0, 10, 10, 20, 0 }, 0, 3);
+    }
+
+    @After
+    public void tearDown() {
+        NativeStandIn.setRecognizeStatus(DHWR.ERR_SUCCESS);
+        mEngine.destroy();
+    }
+
+    @Test
+    public void recognizesTopCandidateOnly() {
+        RecognitionResult result = mEngine.recognize();
+
+        assertTrue(result.isSuccessful());
+        assertEquals(1, result.getRankCount());
+        assertFalse(result.hasStrokeIndices());
+    }
+
+    @Test
+    public void expandReadsTheViewWithoutRecognizingAgain() {
+        RecognitionResult result = mEngine.recognize();
+        final int recognitions = NativeStandIn.getRecognizeCount();
+        RecognitionResult expanded = mEngine.expand(result, CANDIDATES, true);
+
+        assertEquals(recognitions, NativeStandIn.getRecognizeCount());
+        assertEquals(CANDIDATES, expanded.getRankCount());
+        assertTrue(expanded.hasStrokeIndices());
+    }
+
+    @Test
+    public void expandAfterFailedRecognitionRecognizesAgain() {
+        RecognitionResult result = mEngine.recognize();
+        NativeStandIn.setRecognizeStatus(DHWR.ERR_NORESULT);
+        assertFalse(mEngine.recognize().isSuccessful());
+        NativeStandIn.setRecognizeStatus(DHWR.ERR_SUCCESS);
+        final int recognitions = NativeStandIn.getRecognizeCount();
+        RecognitionResult expanded = mEngine.expand(result, CANDIDATES, true);
+
+        assertEquals(recognitions + 1, NativeStandIn.getRecognizeCount());
+        assertTrue(expanded.isSuccessful());
+        assertEquals(CANDIDATES, expanded.getRankCount());
+    }
+}